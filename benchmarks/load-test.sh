@@ -0,0 +1,34 @@
+#!/usr/bin/env bash
+# Runs the load generator against the application in the load profile (in-memory H2, stub SMTP),
+# once on platform threads and once on virtual threads, writing one report per mode.
+#
+# Usage: ./mvnw -Pload install -DskipTests && mvn -f benchmarks/pom.xml package \
+#        && benchmarks/load-test.sh [generator options, e.g. --rate=300 --duration=120s]
+set -euo pipefail
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+PORT=${PORT:-5055}
+OUT=${OUT:-$ROOT/benchmarks}
+
+run_mode() {
+    local mode=$1 profiles=$2
+    java -jar "$ROOT/target/blog-app-exec.jar" --spring.profiles.active="$profiles" --server.port="$PORT" \
+        > "$OUT/load-$mode.log" 2>&1 &
+    local app=$!
+    trap 'kill $app 2>/dev/null || true' RETURN
+
+    for _ in $(seq 1 120); do
+        curl -s -o /dev/null "http://localhost:$PORT/api/posts" && break
+        sleep 1
+    done
+
+    java -cp "$ROOT/benchmarks/target/benchmarks.jar" com.example.blogapplication.load.LoadGenerator \
+        --url="http://localhost:$PORT" --out="$OUT/load-$mode.txt" "$@"
+    kill "$app"
+    wait "$app" 2>/dev/null || true
+}
+
+run_mode platform load "$@"
+run_mode virtual load,virtual-threads "$@"
+
+cat "$OUT/load-platform.txt" "$OUT/load-virtual.txt"
@@ -0,0 +1,99 @@
+package com.example.blogapplication.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Thin blocking client for the endpoints the load mix exercises. Returns the HTTP status (or throws on I/O errors)
+ * so the generator can classify results.
+ */
+class BlogClient {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    BlogClient(HttpClient http, String baseUrl) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+    }
+
+    int register(String email, String password) throws IOException, InterruptedException {
+        return send(form("/register", Map.of("name", "Load User", "email", email,
+                "password", password, "confirmpassword", password))).statusCode();
+    }
+
+    /** Returns the JWT, or null when the login was rejected. */
+    String login(String email, String password) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(form("/login", Map.of("email", email, "password", password)));
+        if (response.statusCode() != 200)
+            return null;
+        return objectMapper.readTree(response.body()).path("token").asText(null);
+    }
+
+    int addBlog(String token, String title, String content) throws IOException, InterruptedException {
+        return send(json("/blog/addBlog", token, blog(title, content))).statusCode();
+    }
+
+    int updateBlog(String token, int id, String title, String content) throws IOException, InterruptedException {
+        return send(json("/blog/updateBlog?id=" + id, token, blog(title, content))).statusCode();
+    }
+
+    /** Reads the first feed page; returns the post ids on success so updates can target existing posts. */
+    FeedPage feed(String token) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/posts?limit=20"))
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json")
+                .header("Authorization", "Bearer " + token)
+                .GET().build();
+        HttpResponse<String> response = send(request);
+        if (response.statusCode() != 200)
+            return new FeedPage(response.statusCode(), new int[0]);
+        JsonNode posts = objectMapper.readTree(response.body());
+        int[] ids = new int[posts.size()];
+        for (int i = 0; i < ids.length; i++)
+            ids[i] = posts.get(i).path("id").asInt();
+        return new FeedPage(response.statusCode(), ids);
+    }
+
+    record FeedPage(int status, int[] ids) {
+    }
+
+    private String blog(String title, String content) throws IOException {
+        return objectMapper.writeValueAsString(Map.of("title", title, "content", content, "author", "load"));
+    }
+
+    private HttpRequest form(String path, Map<String, String> fields) {
+        String body = fields.entrySet().stream()
+                .map(e -> e.getKey() + "=" + URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private HttpRequest json(String path, String token, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.blogapplication.load;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests are started at a fixed arrival rate regardless of how fast the server
+ * answers, with the operation for each slot drawn from a weighted mix. Point it at an instance running the
+ * {@code load} profile (see benchmarks/load-test.sh).
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.example.blogapplication.load.LoadGenerator \
+ *     --url=http://localhost:5000 --rate=200 --duration=60s --warmup=15s --users=50 \
+ *     --mix=register:5,login:10,addBlog:15,updateBlog:10,feed:60 --out=load-report.txt
+ * </pre>
+ */
+public class LoadGenerator {
+    private static final String PASSWORD = "Load$Passw0rd";
+    private static final int KNOWN_IDS = 256;
+
+    private final BlogClient client;
+    private final Map<String, Integer> mix;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    // Pre-registered accounts and their current tokens; login operations refresh them
+    private final AtomicReferenceArray<String> tokens;
+    // Recently seen post ids, harvested from feed reads, for updateBlog to target
+    private final AtomicIntegerArray knownIds = new AtomicIntegerArray(KNOWN_IDS);
+    private final Set<Class<?>> reportedFailures = ConcurrentHashMap.newKeySet();
+
+    private LoadGenerator(BlogClient client, Map<String, Integer> mix, int users) {
+        this.client = client;
+        this.mix = mix;
+        this.tokens = new AtomicReferenceArray<>(users);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String url = options.getOrDefault("url", "http://localhost:5000");
+        int rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        Duration duration = Duration.parse("PT" + options.getOrDefault("duration", "60s"));
+        Duration warmup = Duration.parse("PT" + options.getOrDefault("warmup", "15s"));
+        int users = Integer.parseInt(options.getOrDefault("users", "50"));
+        Map<String, Integer> mix = parseMix(options.getOrDefault("mix", "register:5,login:10,addBlog:15,updateBlog:10,feed:60"));
+        Path out = Path.of(options.getOrDefault("out", "load-report.txt"));
+
+        LoadReport report = new LoadReport(mix.keySet());
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        // Closing waits for every in-flight request, so late responses still land in the report
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            LoadGenerator generator = new LoadGenerator(new BlogClient(http, url), mix, users);
+            generator.prepare(users);
+            generator.run(workers, report, rate, warmup, duration);
+        }
+
+        String header = "Load run " + Instant.now() + " against " + url + System.lineSeparator()
+                + "rate=" + rate + "/s duration=" + duration.toSeconds() + "s warmup=" + warmup.toSeconds()
+                + "s users=" + users + " mix=" + mix;
+        report.write(out, header, duration.toMillis() / 1000.0);
+        System.out.println("Report written to " + out.toAbsolutePath());
+    }
+
+    /** Registers and logs in the account pool and makes sure the feed has posts to update. */
+    private void prepare(int users) throws Exception {
+        for (int i = 0; i < users; i++) {
+            String email = email(i);
+            client.register(email, PASSWORD);
+            String token = client.login(email, PASSWORD);
+            if (token == null)
+                throw new IllegalStateException("Could not log in " + email);
+            tokens.set(i, token);
+        }
+        for (int i = 0; i < 20; i++)
+            client.addBlog(tokens.get(0), "Seed post " + runId + " " + i, seedContent());
+        remember(client.feed(tokens.get(0)).ids());
+    }
+
+    private void run(ExecutorService workers, LoadReport report, int rate, Duration warmup, Duration duration) {
+        List<String> slots = weightedSlots();
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * interval;
+            if (scheduled >= end)
+                break;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0)
+                LockSupport.parkNanos(wait);
+
+            String operation = slots.get(ThreadLocalRandom.current().nextInt(slots.size()));
+            boolean measured = scheduled >= measureFrom;
+            workers.execute(() -> {
+                long sent = System.nanoTime();
+                boolean success = execute(operation);
+                if (measured)
+                    report.record(operation, scheduled, sent, System.nanoTime(), success);
+            });
+        }
+    }
+
+    private boolean execute(String operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int user = random.nextInt(tokens.length());
+        try {
+            switch (operation) {
+                case "register":
+                    return client.register("new-" + runId + "-" + random.nextLong(Long.MAX_VALUE) + "@load.test", PASSWORD) == 200;
+                case "login":
+                    String token = client.login(email(user), PASSWORD);
+                    if (token != null)
+                        tokens.set(user, token);
+                    return token != null;
+                case "addBlog":
+                    return client.addBlog(tokens.get(user), "Load post " + random.nextInt(1_000_000), seedContent()) == 200;
+                case "updateBlog":
+                    int id = knownIds.get(random.nextInt(KNOWN_IDS));
+                    return client.updateBlog(tokens.get(user), id, "Updated post " + random.nextInt(1_000_000), seedContent()) == 200;
+                case "feed":
+                    BlogClient.FeedPage page = client.feed(tokens.get(user));
+                    remember(page.ids());
+                    return page.status() == 200;
+                default:
+                    throw new IllegalArgumentException("Unknown operation " + operation);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            if (reportedFailures.add(e.getClass()))
+                System.err.println(operation + " failed: " + e);
+            return false;
+        }
+    }
+
+    private void remember(int[] ids) {
+        for (int i = 0; i < ids.length; i++)
+            knownIds.set(ThreadLocalRandom.current().nextInt(KNOWN_IDS), ids[i]);
+        // Until the table is full, let empty slots point at a post that exists
+        if (ids.length > 0)
+            for (int i = 0; i < KNOWN_IDS; i++)
+                knownIds.compareAndSet(i, 0, ids[0]);
+    }
+
+    private List<String> weightedSlots() {
+        List<String> slots = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++)
+                slots.add(operation);
+        });
+        return slots;
+    }
+
+    private String email(int user) {
+        return "load-" + runId + "-" + user + "@load.test";
+    }
+
+    private static String seedContent() {
+        return "Generated by the load harness. ".repeat(8);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+        }
+        return options;
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.split(":");
+            weights.put(pair[0].trim(), Integer.parseInt(pair[1].trim()));
+        }
+        return weights;
+    }
+}
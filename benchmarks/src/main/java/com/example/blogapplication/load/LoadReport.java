@@ -0,0 +1,68 @@
+package com.example.blogapplication.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint results. Latency is measured from the time a request was <em>scheduled</em> to start, so a server
+ * that stalls is charged for every request that queued behind the stall (coordinated-omission corrected); service
+ * time is measured from when the request was actually sent and is reported alongside for comparison.
+ */
+class LoadReport {
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    LoadReport(Iterable<String> names) {
+        for (String name : names)
+            endpoints.put(name, new Endpoint());
+    }
+
+    void record(String endpoint, long scheduledNanos, long sentNanos, long completedNanos, boolean success) {
+        Endpoint stats = endpoints.get(endpoint);
+        stats.latency.recordValue(Math.min(MAX_TRACKABLE_MICROS, (completedNanos - scheduledNanos) / 1000));
+        stats.serviceTime.recordValue(Math.min(MAX_TRACKABLE_MICROS, (completedNanos - sentNanos) / 1000));
+        if (!success)
+            stats.errors.increment();
+    }
+
+    void write(Path file, String header, double measuredSeconds) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println(header);
+            out.println();
+            out.printf("%-11s %8s %7s %9s | %-45s | %s%n", "endpoint", "count", "errors", "req/s",
+                    "latency ms (CO-corrected) p50/p90/p99/p99.9/max", "service ms p99");
+            for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+                Histogram latency = entry.getValue().latency;
+                long count = latency.getTotalCount();
+                StringBuilder percentiles = new StringBuilder();
+                for (double percentile : PERCENTILES)
+                    percentiles.append(millis(latency.getValueAtPercentile(percentile))).append('/');
+                percentiles.append(millis(latency.getMaxValue()));
+                out.printf("%-11s %8d %7d %9.1f | %-45s | %s%n", entry.getKey(), count, entry.getValue().errors.sum(),
+                        count / measuredSeconds, percentiles,
+                        millis(entry.getValue().serviceTime.getValueAtPercentile(99)));
+            }
+        }
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.2f", micros / 1000.0);
+    }
+
+    private static class Endpoint {
+        final Histogram latency = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+        final Histogram serviceTime = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+    }
+}
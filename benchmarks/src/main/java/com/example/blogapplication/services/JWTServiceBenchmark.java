@@ -0,0 +1,43 @@
+package com.example.blogapplication.services;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JWTServiceBenchmark {
+
+    private JWTService jwtService;
+    private String token;
+    private UserDetails userDetails;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JWTService();
+        token = jwtService.generateToken("reader@example.com");
+        userDetails = new User("reader@example.com", "unused", Collections.emptyList());
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("reader@example.com");
+    }
+
+    @Benchmark
+    public String extractUserName() {
+        return jwtService.extractUserName(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtService.validateToken(token, userDetails);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.blogapplication.services.blog;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.example.blogapplication.db2.entities.BlogEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import org.springframework.util.unit.DataSize;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlogServiceBenchmark {
+
+    @Param({"200", "20000"})
+    public int contentLength;
+
+    private BlogService blogService;
+    private ObjectMapper objectMapper;
+    private BlogEntity stored;
+    private BlogEntity edit;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws Exception {
+        blogService = new BlogService();
+        blogService.markdownRenderer = new MarkdownRenderer(DataSize.ofMegabytes(16), new SimpleMeterRegistry());
+        // Same modules as the Boot-configured mapper the controllers use
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+        String content = "x".repeat(contentLength);
+        stored = blog(1, "A title long enough", content);
+        stored.setCreatedAt(LocalDateTime.now());
+        edit = blog(0, "An edited title", content + "!");
+        json = objectMapper.writeValueAsBytes(stored);
+    }
+
+    private static BlogEntity blog(int id, String title, String content) {
+        BlogEntity blog = new BlogEntity();
+        blog.setId(id);
+        blog.setTitle(title);
+        blog.setContent(content);
+        blog.setAuthor("ada");
+        return blog;
+    }
+
+    @Benchmark
+    public BlogEntity getUpdatedBlog() {
+        return blogService.getUpdatedBlog(stored, edit);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(stored);
+    }
+
+    @Benchmark
+    public BlogEntity deserialize() throws Exception {
+        return objectMapper.readValue(json, BlogEntity.class);
+    }
+}
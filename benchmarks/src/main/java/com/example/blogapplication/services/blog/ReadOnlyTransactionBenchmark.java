@@ -0,0 +1,67 @@
+package com.example.blogapplication.services.blog;
+
+import com.example.blogapplication.db2.entities.BlogEntity;
+import com.example.blogapplication.db2.repository.BlogRepository;
+import com.example.blogapplication.support.EmbeddedApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a page of blogs in a read-only transaction (manual flush, no dirty-checking snapshots,
+ * read-only connection) against a default read-write one. Run with -prof gc to see the per-read
+ * allocation difference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadOnlyTransactionBenchmark {
+
+    @Param({"20", "200"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private BlogRepository blogRepository;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @Setup
+    public void setUp() {
+        context = EmbeddedApplication.start();
+        blogRepository = context.getBean(BlogRepository.class);
+        PlatformTransactionManager transactionManager = context.getBean("blogTransactionManager", PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        for (int i = 0; i < rows; i++) {
+            BlogEntity blog = new BlogEntity();
+            blog.setTitle("Benchmark post " + i);
+            blog.setContent("Benchmark content for post number " + i);
+            blog.setAuthor("bench");
+            blogRepository.save(blog);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BlogEntity> readOnlyTransaction() {
+        return readOnly.execute(status -> blogRepository.findAll());
+    }
+
+    @Benchmark
+    public List<BlogEntity> readWriteTransaction() {
+        return readWrite.execute(status -> blogRepository.findAll());
+    }
+}
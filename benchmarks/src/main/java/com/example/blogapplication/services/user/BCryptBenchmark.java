@@ -0,0 +1,38 @@
+package com.example.blogapplication.services.user;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+// SecurityConfig uses the default strength (10); the other costs show what raising or lowering it would mean per login
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class BCryptBenchmark {
+
+    @Param({"4", "10", "12"})
+    public int cost;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(cost);
+        hash = encoder.encode("Sup3r$ecret");
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode("Sup3r$ecret");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("Sup3r$ecret", hash);
+    }
+}
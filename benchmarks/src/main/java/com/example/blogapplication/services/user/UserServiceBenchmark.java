@@ -0,0 +1,34 @@
+package com.example.blogapplication.services.user;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    @Param({"reader.name+tag@example.co.uk", "not-an-email"})
+    public String email;
+
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        userService = new UserService();
+    }
+
+    @Benchmark
+    public boolean checkEmail() {
+        return userService.checkEmail(email);
+    }
+
+    @Benchmark
+    public boolean checkPassword() {
+        return userService.checkPassword("Sup3r$ecret", "Sup3r$ecret");
+    }
+}
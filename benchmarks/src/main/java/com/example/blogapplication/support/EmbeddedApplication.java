@@ -0,0 +1,37 @@
+package com.example.blogapplication.support;
+
+import com.example.blogapplication.BlogApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Boots the real application context (both persistence units, Flyway, services) against in-memory H2
+ * for benchmarks that need the persistence layer.
+ */
+public final class EmbeddedApplication {
+
+    private EmbeddedApplication() {
+    }
+
+    public static ConfigurableApplicationContext start() {
+        String name = "bench" + System.nanoTime();
+        return new SpringApplicationBuilder(BlogApplication.class)
+                .web(WebApplicationType.NONE)
+                // Passed as arguments so they win over the packaged application.properties
+                .run(
+                        "--spring.user.datasource.jdbc-url=jdbc:h2:mem:" + name + "_user;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.user.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.user.datasource.username=sa",
+                        "--spring.user.datasource.password=",
+                        "--spring.blog.datasource.jdbc-url=jdbc:h2:mem:" + name + "_blog;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.blog.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.blog.datasource.username=sa",
+                        "--spring.blog.datasource.password=",
+                        "--spring.r2dbc.url=r2dbc:h2:mem:///" + name + "_blog;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.r2dbc.username=sa",
+                        "--spring.r2dbc.password=",
+                        "--blog.jpa.dialect=org.hibernate.dialect.H2Dialect",
+                        "--logging.level.root=WARN");
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.blogapplication.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the at-rest content codec: encoding on write, decoding on every read, against reading a plain row
+ * (the pass-through check alone). The compression ratio for each size is printed once per fork by setUp.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentCodecBenchmark {
+
+    private static final String[] WORDS = ("the a of to and in is that for it on with as was this be by are at from "
+            + "post blog write reader markdown content code server request cache index query latency memory thread "
+            + "database table column page feed comment user time performance **bold** `inline` [link](https://example.com)")
+            .split(" ");
+
+    @Param({"2000", "20000", "200000"})
+    public int contentLength;
+
+    private ContentCodec codec;
+    private String content;
+    private String compressed;
+
+    @Setup
+    public void setUp() {
+        codec = new ContentCodec(true, DataSize.ofKilobytes(1));
+        content = prose(contentLength);
+        compressed = codec.encode(content);
+        System.out.printf("%n%d chars -> %d stored (%.1f%%)%n", content.length(), compressed.length(),
+                100.0 * compressed.length() / content.length());
+    }
+
+    // Word salad with Markdown sprinkled in; real posts compress at least as well
+    private static String prose(int length) {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder(length + 32);
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+            text.append(random.nextInt(12) == 0 ? ".\n\n" : " ");
+        }
+        return text.substring(0, length);
+    }
+
+    @Benchmark
+    public String encode() {
+        return codec.encode(content);
+    }
+
+    @Benchmark
+    public String decode() {
+        return codec.decode(compressed);
+    }
+
+    @Benchmark
+    public String decodePlain() {
+        return codec.decode(content);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.blogapplication.util;
+
+import com.example.blogapplication.services.JWTService;
+import com.example.blogapplication.services.user.UserService;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full cost of authenticating one request: header parsing, two JWT parses (extract + validate)
+ * and building the security context. The user lookup is stubbed out so only CPU work is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private RouteFilter filter;
+    private MockHttpServletRequest authenticated;
+    private MockHttpServletRequest anonymous;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        UserDetails user = new User("reader@example.com", "unused", Collections.emptyList());
+        filter = new RouteFilter();
+        filter.jwtService = new JWTService();
+        filter.userService = new UserService() {
+            @Override
+            public UserDetails loadUserByUsername(String email) {
+                return user;
+            }
+        };
+
+        authenticated = new MockHttpServletRequest("GET", "/blog/feed");
+        authenticated.addHeader("Authorization", "Bearer " + filter.jwtService.generateToken(user.getUsername()));
+        anonymous = new MockHttpServletRequest("GET", "/api/posts");
+        response = new MockHttpServletResponse();
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void bearerToken() throws Exception {
+        filter.doFilterInternal(authenticated, response, NO_OP_CHAIN);
+    }
+
+    @Benchmark
+    public void noToken() throws Exception {
+        filter.doFilterInternal(anonymous, response, NO_OP_CHAIN);
+    }
+}
@@ -0,0 +1,37 @@
+#!/usr/bin/env bash
+# Compares time-to-context-refresh of the plain jar against the fast-startup
+# setup (prod profile: parallel JPA bootstrap, Spring AOT, AppCDS archive).
+#
+# Usage: ./mvnw -Pfast-startup clean package && benchmarks/startup-time.sh [runs]
+#
+# Both variants run with the cds-training profile so neither touches a database;
+# the context exits as soon as it has refreshed.
+set -euo pipefail
+
+RUNS=${1:-5}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+java -Djarmode=tools -jar "$ROOT/target/blog-app-exec.jar" extract --destination "$WORK/app" > /dev/null
+cd "$WORK/app"
+
+echo "Creating CDS archive..."
+java -XX:ArchiveClassesAtExit=app.jsa -Dspring.context.exit=onRefresh -Dspring.aot.enabled=true \
+    -Dspring.profiles.active=prod,cds-training -jar blog-app-exec.jar > /dev/null 2>&1
+
+measure() {
+    local label=$1; shift
+    local total=0
+    for ((i = 1; i <= RUNS; i++)); do
+        local start end
+        start=$(date +%s%N)
+        java -Dspring.context.exit=onRefresh "$@" -jar blog-app-exec.jar > /dev/null 2>&1
+        end=$(date +%s%N)
+        total=$((total + (end - start) / 1000000))
+    done
+    printf '%-12s %6d ms (mean of %d runs)\n' "$label" $((total / RUNS)) "$RUNS"
+}
+
+measure baseline -Dspring.profiles.active=cds-training
+measure fast -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -Dspring.profiles.active=prod,cds-training
@@ -1,19 +1,32 @@
 package com.example.blogapplication.config;
 
+import com.example.blogapplication.util.CountingStatistics;
+import com.zaxxer.hikari.HikariDataSource;
 import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.spi.StatisticsFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.config.BootstrapMode;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.hibernate5.SpringBeanContainer;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.sql.DataSource;
+import java.time.Duration;
 import java.util.HashMap;
 
 @Configuration
@@ -21,32 +34,96 @@ import java.util.HashMap;
 @EnableJpaRepositories(
         entityManagerFactoryRef = "blogEntityManagerFactory",
         transactionManagerRef = "blogTransactionManager",
+        bootstrapMode = BootstrapMode.LAZY,
         basePackages = {
                 "com.example.blogapplication.db2.repository"  // ✅ Fixed the package format
         }
 )
 public class BlogDBConfig {
 
+    @Value("${blog.jpa.dialect:org.hibernate.dialect.MySQLDialect}")
+    private String dialect;
+
+    @Value("${blog.jpa.blog-db.ddl-auto:validate}")
+    private String ddlAuto;
+
+    @Value("${blog.jpa.allow-jdbc-metadata-access:true}")
+    private boolean allowJdbcMetadataAccess;
+
+    @Value("${blog.jpa.parallel-bootstrap:false}")
+    private boolean parallelBootstrap;
+
+    @Value("${blog.flyway.migrate-on-startup:true}")
+    private boolean migrateOnStartup;
+
+    @Value("${blog.db.connection-timeout:5s}")
+    private Duration connectionTimeout;
+
+    @Value("${blog.db.socket-timeout:60s}")
+    private Duration socketTimeout;
+
+    @Value("${blog.db.query-timeout:30s}")
+    private Duration queryTimeout;
+
+    @Value("${blog.db.transaction-timeout:60s}")
+    private Duration transactionTimeout;
+
     @Bean(name = "blogDataSource")
     @ConfigurationProperties(prefix = "spring.blog.datasource")
     public DataSource dataSource() {
-        return DataSourceBuilder.create().build();
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class).build();
+        // Defaults under the bound spring.blog.datasource.* properties: waiting for a pooled connection, opening one
+        // and a stuck socket read (Connector/J) all give up in bounded time instead of holding the request thread
+        dataSource.setConnectionTimeout(connectionTimeout.toMillis());
+        dataSource.addDataSourceProperty("connectTimeout", String.valueOf(connectionTimeout.toMillis()));
+        dataSource.addDataSourceProperty("socketTimeout", String.valueOf(socketTimeout.toMillis()));
+        return dataSource;
+    }
+
+    @Bean(name = "blogFlyway")
+    public Flyway blogFlyway(@Qualifier("blogDataSource") DataSource dataSource) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/blog_db")
+                .baselineOnMigrate(true)
+                .load();
+    }
+
+    @Bean(name = "blogFlywayInitializer")
+    public FlywayMigrationInitializer blogFlywayInitializer(@Qualifier("blogFlyway") Flyway flyway) {
+        return new FlywayMigrationInitializer(flyway, migrateOnStartup ? null : skipped -> { });
     }
 
     @Bean(name = "blogEntityManagerFactory")
-    public LocalContainerEntityManagerFactoryBean blogEntityManagerFactory(@Qualifier("blogDataSource") DataSource dataSource) {
+    @DependsOn("blogFlywayInitializer")
+    public LocalContainerEntityManagerFactoryBean blogEntityManagerFactory(@Qualifier("blogDataSource") DataSource dataSource,
+                                                                           ConfigurableListableBeanFactory beanFactory) {
 
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
         em.setDataSource(dataSource);
         em.setPackagesToScan("com.example.blogapplication.db2.entities"); // ✅ Fixed the package format
         em.setPersistenceUnitName("Blog");
+        if (parallelBootstrap) {
+            // Build this unit's SessionFactory off the main thread, alongside the other unit's
+            em.setBootstrapExecutor(new SimpleAsyncTaskExecutor("blog-jpa-bootstrap-"));
+        }
 
         HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
         em.setJpaVendorAdapter(vendorAdapter);
 
         HashMap<String, Object> properties = new HashMap<>();
-        properties.put("hibernate.dialect", "org.hibernate.dialect.MySQL8Dialect");
-        properties.put("hibernate.hbm2ddl.auto", "update");
+        properties.put("hibernate.dialect", dialect);
+        properties.put("hibernate.hbm2ddl.auto", ddlAuto);
+        properties.put("hibernate.boot.allow_jdbc_metadata_access", allowJdbcMetadataAccess);
+        // Per-unit statistics (exported as hibernate_* metrics) that also feed the per-request query counter
+        properties.put("hibernate.generate_statistics", true);
+        // Statistics would otherwise log an INFO "Session Metrics" block for every session
+        properties.put("hibernate.session.events.log", false);
+        // Statement timeout (ms) for every JPA query; transactions are additionally bounded by the manager's default timeout
+        properties.put("jakarta.persistence.query.timeout", queryTimeout.toMillis());
+        properties.put("hibernate.stats.factory", (StatisticsFactory) sessionFactory -> new CountingStatistics(sessionFactory, "blog_db"));
+        // Attribute converters (CompressedContentConverter) come from the Spring context
+        properties.put(AvailableSettings.BEAN_CONTAINER, new SpringBeanContainer(beanFactory));
 
 
         em.setJpaPropertyMap(properties);
@@ -57,6 +134,8 @@ public class BlogDBConfig {
     @Bean(name = "blogTransactionManager")
     public PlatformTransactionManager blogTransactionManager(
             @Qualifier("blogEntityManagerFactory") EntityManagerFactory blogEntityManagerFactory) {  // ✅ Fixed variable name
-        return new JpaTransactionManager(blogEntityManagerFactory);
+        JpaTransactionManager transactionManager = new JpaTransactionManager(blogEntityManagerFactory);
+        transactionManager.setDefaultTimeout((int) transactionTimeout.toSeconds());
+        return transactionManager;
     }
 }
@@ -0,0 +1,13 @@
+package com.example.blogapplication.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+
+@Configuration
+@EnableR2dbcRepositories(
+        basePackages = {
+                "com.example.blogapplication.db2.reactive"
+        }
+)
+public class BlogReactiveConfig {
+}
@@ -0,0 +1,44 @@
+package com.example.blogapplication.config;
+
+import com.example.blogapplication.util.ChangeLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// One change log per database; both share this node's id so a node can skip its own changes
+@Configuration
+public class ChangeLogConfig {
+
+    @Value("${blog.change-log.node-id:${random.uuid}}")
+    private String nodeId;
+
+    @Value("${blog.change-log.batch-size:500}")
+    private int batchSize;
+
+    @Value("${blog.change-log.gap-timeout:30s}")
+    private Duration gapTimeout;
+
+    @Value("${blog.change-log.max-staleness:30s}")
+    private Duration maxStaleness;
+
+    @Value("${blog.change-log.retention:1h}")
+    private Duration retention;
+
+    @Bean(name = "userChangeLog")
+    @DependsOn("userFlywayInitializer")
+    public ChangeLog userChangeLog(@Qualifier("userDataSource") DataSource dataSource, MeterRegistry meterRegistry) {
+        return new ChangeLog("user_db", nodeId, dataSource, batchSize, gapTimeout, maxStaleness, retention, meterRegistry);
+    }
+
+    @Bean(name = "blogChangeLog")
+    @DependsOn("blogFlywayInitializer")
+    public ChangeLog blogChangeLog(@Qualifier("blogDataSource") DataSource dataSource, MeterRegistry meterRegistry) {
+        return new ChangeLog("blog_db", nodeId, dataSource, batchSize, gapTimeout, maxStaleness, retention, meterRegistry);
+    }
+}
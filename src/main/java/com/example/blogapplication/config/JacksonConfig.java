@@ -0,0 +1,29 @@
+package com.example.blogapplication.config;
+
+import com.example.blogapplication.db2.reactive.BlogPost;
+import com.example.blogapplication.util.BlogPostSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Module beans are added to Boot's ObjectMapper, the one MVC, WebFlux codecs and the services all share
+@Configuration
+public class JacksonConfig {
+
+    // Property getters/constructors called through generated lambdas instead of reflection
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public Module hotTypesModule() {
+        return hotTypes();
+    }
+
+    public static SimpleModule hotTypes() {
+        return new SimpleModule("blog-hot-types").addSerializer(BlogPost.class, new BlogPostSerializer());
+    }
+}
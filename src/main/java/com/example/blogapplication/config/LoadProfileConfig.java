@@ -0,0 +1,52 @@
+package com.example.blogapplication.config;
+
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Configuration
+@Profile("load")
+public class LoadProfileConfig {
+
+    // Replaces the auto-configured Gmail sender for load runs
+    @Bean
+    public JavaMailSender mailSender(@Value("${blog.mail.stub.latency:0ms}") Duration latency) {
+        return new StubMailSender(latency);
+    }
+
+    /**
+     * Accepts every message in-process after a fixed delay standing in for the SMTP round trip.
+     */
+    @Slf4j
+    static class StubMailSender extends JavaMailSenderImpl {
+        private final Duration latency;
+        private final AtomicLong sent = new AtomicLong();
+
+        StubMailSender(Duration latency) {
+            this.latency = latency;
+        }
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MailSendException("Interrupted while sending", e);
+            }
+            long total = sent.addAndGet(mimeMessages.length);
+            if (total % 1000 == 0)
+                log.info("Stub mail sender accepted {} messages", total);
+        }
+    }
+}
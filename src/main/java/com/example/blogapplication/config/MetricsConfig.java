@@ -0,0 +1,17 @@
+package com.example.blogapplication.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // Backs the @Timed("blog.controller") annotations on the MVC controllers (one timer per class/method, tagged with the exception)
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry){
+        return new TimedAspect(registry);
+    }
+
+}
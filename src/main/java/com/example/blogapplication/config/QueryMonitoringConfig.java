@@ -0,0 +1,52 @@
+package com.example.blogapplication.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import net.ttddyy.dsproxy.listener.logging.SLF4JLogLevel;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import net.ttddyy.observation.tracing.DataSourceObservationListener;
+import net.ttddyy.observation.tracing.JdbcObservationDocumentation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class QueryMonitoringConfig {
+
+    private static final Map<String, String> DATA_SOURCE_NAMES = Map.of(
+            "userDataSource", "user_db",
+            "blogDataSource", "blog_db");
+
+    // Wraps both Hikari pools so any statement slower than the threshold is logged with its bound parameters
+    // (logger "blog.slow-query") and every connection/statement gets a span tagged jdbc.datasource.name=user_db|blog_db.
+    // Counting is done by Hibernate statistics, see CountingStatistics.
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(
+            @Value("${blog.jpa.slow-query-threshold:250ms}") Duration threshold,
+            ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                String name = DATA_SOURCE_NAMES.get(beanName);
+                if (name == null || !(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                DataSourceObservationListener observationListener = new DataSourceObservationListener(observationRegistry::getObject);
+                observationListener.setSupportedTypes(EnumSet.of(JdbcObservationDocumentation.CONNECTION, JdbcObservationDocumentation.QUERY));
+                return ProxyDataSourceBuilder.create(name, dataSource)
+                        .logSlowQueryBySlf4j(threshold.toMillis(), TimeUnit.MILLISECONDS, SLF4JLogLevel.WARN, "blog.slow-query")
+                        .listener(observationListener)
+                        .methodListener(observationListener)
+                        .build();
+            }
+        };
+    }
+
+}
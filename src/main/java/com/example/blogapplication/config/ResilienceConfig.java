@@ -0,0 +1,112 @@
+package com.example.blogapplication.config;
+
+import com.example.blogapplication.util.CircuitBreakerHealthIndicator;
+import com.example.blogapplication.util.GuardedDataSource;
+import com.example.blogapplication.util.ReactiveGuard;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * One circuit breaker and one semaphore bulkhead per remote dependency: user_db, blog_db and smtp. Settings are
+ * read per dependency from {@code blog.resilience.<name>.*}. Breakers open on the rate of failed (timed out, broken
+ * connection) or slow calls over a sliding window, fail everything fast while open, then let a few trial calls
+ * through. Bulkheads cap concurrent calls and refuse the rest after a short wait rather than queueing them.
+ */
+@Configuration
+public class ResilienceConfig {
+
+    public static final String USER_DB = "user_db";
+    public static final String BLOG_DB = "blog_db";
+    public static final String SMTP = "smtp";
+
+    private static final Map<String, String> DATA_SOURCE_NAMES = Map.of(
+            "userDataSource", USER_DB,
+            "blogDataSource", BLOG_DB);
+
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(Environment environment, MeterRegistry meterRegistry) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.ofDefaults();
+        for (String name : new String[]{USER_DB, BLOG_DB, SMTP}) {
+            String prefix = "blog.resilience." + name + ".";
+            registry.circuitBreaker(name, CircuitBreakerConfig.custom()
+                    .slidingWindowSize(environment.getProperty(prefix + "sliding-window", Integer.class, 50))
+                    .minimumNumberOfCalls(environment.getProperty(prefix + "minimum-calls", Integer.class, 20))
+                    .failureRateThreshold(environment.getProperty(prefix + "failure-rate-threshold", Float.class, 50f))
+                    .slowCallDurationThreshold(environment.getProperty(prefix + "slow-call-duration", Duration.class, Duration.ofSeconds(10)))
+                    .slowCallRateThreshold(environment.getProperty(prefix + "slow-call-rate-threshold", Float.class, 80f))
+                    .waitDurationInOpenState(environment.getProperty(prefix + "wait-in-open", Duration.class, Duration.ofSeconds(30)))
+                    .permittedNumberOfCallsInHalfOpenState(environment.getProperty(prefix + "half-open-calls", Integer.class, 5))
+                    .build());
+        }
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(Environment environment, MeterRegistry meterRegistry) {
+        BulkheadRegistry registry = BulkheadRegistry.ofDefaults();
+        for (String name : new String[]{USER_DB, BLOG_DB, SMTP}) {
+            String prefix = "blog.resilience." + name + ".";
+            registry.bulkhead(name, BulkheadConfig.custom()
+                    .maxConcurrentCalls(environment.getProperty(prefix + "max-concurrent", Integer.class, 10))
+                    .maxWaitDuration(environment.getProperty(prefix + "max-wait", Duration.class, Duration.ofMillis(100)))
+                    .build());
+        }
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    // Both pools go behind their database's breaker and bulkhead (after QueryMonitoringConfig's proxy, whichever wraps first)
+    @Bean
+    public static BeanPostProcessor guardedDataSourcePostProcessor(ObjectProvider<CircuitBreakerRegistry> circuitBreakers,
+                                                                   ObjectProvider<BulkheadRegistry> bulkheads) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                String name = DATA_SOURCE_NAMES.get(beanName);
+                if (name == null || !(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                return new GuardedDataSource(dataSource, () -> circuitBreakers.getObject().circuitBreaker(name),
+                        () -> bulkheads.getObject().bulkhead(name));
+            }
+        };
+    }
+
+    // blog_db's R2DBC reads (PostReadService) go through the same breaker and bulkhead as its JDBC pool
+    @Bean
+    public ReactiveGuard blogDbReactiveGuard(CircuitBreakerRegistry circuitBreakers, BulkheadRegistry bulkheads) {
+        return new ReactiveGuard(circuitBreakers.circuitBreaker(BLOG_DB), bulkheads.bulkhead(BLOG_DB));
+    }
+
+    // Health: an open database breaker takes the instance out of service; an open SMTP breaker only shows in the details
+    @Bean
+    public CircuitBreakerHealthIndicator userDbBreakerHealthIndicator(CircuitBreakerRegistry registry) {
+        return new CircuitBreakerHealthIndicator(registry.circuitBreaker(USER_DB), Status.OUT_OF_SERVICE);
+    }
+
+    @Bean
+    public CircuitBreakerHealthIndicator blogDbBreakerHealthIndicator(CircuitBreakerRegistry registry) {
+        return new CircuitBreakerHealthIndicator(registry.circuitBreaker(BLOG_DB), Status.OUT_OF_SERVICE);
+    }
+
+    @Bean
+    public CircuitBreakerHealthIndicator smtpBreakerHealthIndicator(CircuitBreakerRegistry registry) {
+        return new CircuitBreakerHealthIndicator(registry.circuitBreaker(SMTP), Status.UP);
+    }
+}
@@ -3,9 +3,13 @@ package com.example.blogapplication.config;
 
 import com.example.blogapplication.services.user.UserService;
 import com.example.blogapplication.util.RouteFilter;
+import com.example.blogapplication.util.TimedPasswordEncoder;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -26,10 +30,14 @@ public class SecurityConfig {
     private UserService userService;
     @Autowired
     private RouteFilter filter;
+    @Autowired
+    private ObservationRegistry observationRegistry;
+    @Autowired
+    private Environment environment;
 
     @Bean
     public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), observationRegistry);
     }
 
     @Bean
@@ -53,9 +61,17 @@ public class SecurityConfig {
             response.setStatus(HttpStatus.UNAUTHORIZED.value());
             response.getWriter().write("Unauthorized :Please provide a valid token");
         })).authorizeHttpRequests(req->req
-                .requestMatchers("/login","/register","/user/forgot-password","/user/reset-password").permitAll().anyRequest().authenticated())
+                .requestMatchers("/login","/register","/user/forgot-password","/user/reset-password").permitAll()
+                .requestMatchers(HttpMethod.GET,"/api/posts/**","/media/**","/rss.xml","/atom.xml","/sitemap.xml","/sitemap-*.xml").permitAll()
+                .requestMatchers("/actuator/health/**").permitAll()
+                .requestMatchers(request -> onManagementPort(request.getLocalPort())).permitAll().anyRequest().authenticated())
                 .sessionManagement(sess->sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS)).addFilterBefore(filter, UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
 
+    // Metrics are scraped unauthenticated only on a separate management port (prod), never on the public one
+    private boolean onManagementPort(int port) {
+        return String.valueOf(port).equals(environment.getProperty("local.management.port"));
+    }
+
 }
@@ -0,0 +1,67 @@
+package com.example.blogapplication.config;
+
+import io.micrometer.tracing.Tracer;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import net.ttddyy.observation.tracing.ConnectionTracingObservationHandler;
+import net.ttddyy.observation.tracing.QueryTracingObservationHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.tracing.MicrometerTracingAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+
+import java.util.Collection;
+
+@Configuration
+public class TracingConfig {
+
+    // Picked up by the auto-configured task executor so @Async work (EmailService) continues the request's trace
+    @Bean
+    public ContextPropagatingTaskDecorator contextPropagatingTaskDecorator(){
+        return new ContextPropagatingTaskDecorator();
+    }
+
+    // JDBC spans from QueryMonitoringConfig: ordered ahead of Boot's default handler so they carry the
+    // datasource as remote service name and the SQL as a tag
+    @Bean
+    @Order(MicrometerTracingAutoConfiguration.DEFAULT_TRACING_OBSERVATION_HANDLER_ORDER - 10)
+    public ConnectionTracingObservationHandler connectionTracingObservationHandler(Tracer tracer){
+        return new ConnectionTracingObservationHandler(tracer);
+    }
+
+    @Bean
+    @Order(MicrometerTracingAutoConfiguration.DEFAULT_TRACING_OBSERVATION_HANDLER_ORDER - 10)
+    public QueryTracingObservationHandler queryTracingObservationHandler(Tracer tracer){
+        return new QueryTracingObservationHandler(tracer);
+    }
+
+    // Offline exporter: finished spans are written to the log (logger io.opentelemetry.exporter.logging). Always
+    // registered and switched at runtime: a bean condition would be frozen by the prod AOT build
+    @Bean
+    public SpanExporter loggingSpanExporter(@Value("${blog.tracing.log-spans:false}") boolean logSpans){
+        return logSpans ? LoggingSpanExporter.create() : new DiscardingSpanExporter();
+    }
+
+    private static final class DiscardingSpanExporter implements SpanExporter {
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+
+}
@@ -1,13 +1,22 @@
 package com.example.blogapplication.config;
 
+import com.example.blogapplication.util.CountingStatistics;
+import com.zaxxer.hikari.HikariDataSource;
 import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.stat.spi.StatisticsFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.config.BootstrapMode;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
@@ -15,6 +24,7 @@ import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.sql.DataSource;
+import java.time.Duration;
 import java.util.HashMap;
 
 @Configuration
@@ -22,12 +32,39 @@ import java.util.HashMap;
 @EnableJpaRepositories(
         entityManagerFactoryRef = "userEntityManagerFactory",
         transactionManagerRef = "userTransactionManager",
+        bootstrapMode = BootstrapMode.LAZY,
         basePackages = {
                 "com.example.blogapplication.db1.repositories" // ✅ Fixed package format
         }
 )
 public class UserDBConfig {
 
+    @Value("${blog.jpa.dialect:org.hibernate.dialect.MySQLDialect}")
+    private String dialect;
+
+    @Value("${blog.jpa.user-db.ddl-auto:validate}")
+    private String ddlAuto;
+
+    @Value("${blog.jpa.allow-jdbc-metadata-access:true}")
+    private boolean allowJdbcMetadataAccess;
+
+    @Value("${blog.jpa.parallel-bootstrap:false}")
+    private boolean parallelBootstrap;
+
+    @Value("${blog.flyway.migrate-on-startup:true}")
+    private boolean migrateOnStartup;
+
+    @Value("${blog.db.connection-timeout:5s}")
+    private Duration connectionTimeout;
+
+    @Value("${blog.db.socket-timeout:60s}")
+    private Duration socketTimeout;
+
+    @Value("${blog.db.query-timeout:30s}")
+    private Duration queryTimeout;
+
+    @Value("${blog.db.transaction-timeout:60s}")
+    private Duration transactionTimeout;
 
 //    What Does @ConfigurationProperties(prefix = "spring.user.datasource") Do?
 //            ✔️ Binds external configuration properties (from application.properties or application.yml) to this method.
@@ -54,11 +91,32 @@ public class UserDBConfig {
     @ConfigurationProperties(prefix = "spring.user.datasource")
 
     public DataSource userDataSource() {
-        return DataSourceBuilder.create().build();
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class).build();
+        // Defaults under the bound spring.user.datasource.* properties: waiting for a pooled connection, opening one
+        // and a stuck socket read (Connector/J) all give up in bounded time instead of holding the request thread
+        dataSource.setConnectionTimeout(connectionTimeout.toMillis());
+        dataSource.addDataSourceProperty("connectTimeout", String.valueOf(connectionTimeout.toMillis()));
+        dataSource.addDataSourceProperty("socketTimeout", String.valueOf(socketTimeout.toMillis()));
+        return dataSource;
+    }
+
+    @Bean(name = "userFlyway")
+    public Flyway userFlyway(@Qualifier("userDataSource") DataSource dataSource) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/user_db")
+                .baselineOnMigrate(true)
+                .load();
+    }
+
+    @Bean(name = "userFlywayInitializer")
+    public FlywayMigrationInitializer userFlywayInitializer(@Qualifier("userFlyway") Flyway flyway) {
+        return new FlywayMigrationInitializer(flyway, migrateOnStartup ? null : skipped -> { });
     }
 
     @Primary
     @Bean(name = "userEntityManagerFactory")  // ✅ Renamed to match entityManagerFactoryRef
+    @DependsOn("userFlywayInitializer")
     public LocalContainerEntityManagerFactoryBean userEntityManagerFactory(
             @Qualifier("userDataSource") DataSource dataSource) {  // ✅ Updated reference to new name
 
@@ -66,14 +124,26 @@ public class UserDBConfig {
         em.setDataSource(dataSource);
         em.setPackagesToScan("com.example.blogapplication.db1.entities"); // ✅ Fixed package format
         em.setPersistenceUnitName("User");
+        if (parallelBootstrap) {
+            // Build this unit's SessionFactory off the main thread, alongside the other unit's
+            em.setBootstrapExecutor(new SimpleAsyncTaskExecutor("user-jpa-bootstrap-"));
+        }
 
         HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
         em.setJpaVendorAdapter(vendorAdapter);
 
         HashMap<String, Object> properties = new HashMap<>();
 
-        properties.put("hibernate.dialect", "org.hibernate.dialect.MySQL8Dialect");
-        properties.put("hibernate.hbm2ddl.auto", "update");
+        properties.put("hibernate.dialect", dialect);
+        properties.put("hibernate.hbm2ddl.auto", ddlAuto);
+        properties.put("hibernate.boot.allow_jdbc_metadata_access", allowJdbcMetadataAccess);
+        // Per-unit statistics (exported as hibernate_* metrics) that also feed the per-request query counter
+        properties.put("hibernate.generate_statistics", true);
+        // Statistics would otherwise log an INFO "Session Metrics" block for every session
+        properties.put("hibernate.session.events.log", false);
+        // Statement timeout (ms) for every JPA query; transactions are additionally bounded by the manager's default timeout
+        properties.put("jakarta.persistence.query.timeout", queryTimeout.toMillis());
+        properties.put("hibernate.stats.factory", (StatisticsFactory) sessionFactory -> new CountingStatistics(sessionFactory, "user_db"));
 
 
         em.setJpaPropertyMap(properties);
@@ -125,7 +195,9 @@ public class UserDBConfig {
     @Bean(name = "userTransactionManager")  // ✅ Renamed to match transactionManagerRef
     public PlatformTransactionManager userTransactionManager(
             @Qualifier("userEntityManagerFactory") EntityManagerFactory userEntityManagerFactory) { // ✅ Updated reference
-        return new JpaTransactionManager(userEntityManagerFactory);
+        JpaTransactionManager transactionManager = new JpaTransactionManager(userEntityManagerFactory);
+        transactionManager.setDefaultTimeout((int) transactionTimeout.toSeconds());
+        return transactionManager;
     }
 }
 
@@ -4,52 +4,80 @@ package com.example.blogapplication.controller;
 import com.example.blogapplication.db2.entities.BlogEntity;
 //import com.example.blogapplication.model.blog.BlogModel;
 import com.example.blogapplication.model.Blog;
+import com.example.blogapplication.model.MessageResponse;
 import com.example.blogapplication.services.blog.BlogService;
+import com.example.blogapplication.services.blog.RevisionService;
+import com.example.blogapplication.services.blog.TrendingService;
 import jakarta.validation.Valid;
 import org.hibernate.validator.constraints.ParameterScriptAssert;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
+@Timed("blog.controller")
 @RequestMapping("/blog")
 public class BlogController {
    @Autowired
     private BlogService blogService;
+   @Autowired
+    private TrendingService trendingService;
+   @Autowired
+    private RevisionService revisionService;
 
 
 
 @PostMapping("/addBlog")
-    ResponseEntity<String> addBlog(@Valid @RequestBody BlogEntity  blog){
+    ResponseEntity<MessageResponse> addBlog(@Valid @RequestBody BlogEntity  blog){
 
-    boolean isSaved=blogService.addBlog(blog);
+    blogService.addBlog(blog);
+return  ResponseEntity.status(HttpStatus.OK).body(new MessageResponse("Blog posted"));
+    }
 
-if (!isSaved)
-    return  ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Something went wrong");
-return  ResponseEntity.status(HttpStatus.OK).body("Blog posted");
+    // Precomputed by TrendingService on its own schedule; a read is a copy of the current snapshot
+    @GetMapping("/trending")
+    ResponseEntity<byte[]> trending(){
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(trendingService.snapshot());
     }
 
     @PostMapping("/deleteBlog")
-    ResponseEntity<String> deleteBlog( @RequestParam Integer id){
+    ResponseEntity<MessageResponse> deleteBlog( @RequestParam Integer id){
 
         boolean isDeleted=blogService.deleteBlog(id);
         if (isDeleted)
-    return ResponseEntity.status(HttpStatus.OK).body("Deleted sucessfully");
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Something went wrong");
+    return ResponseEntity.status(HttpStatus.OK).body(new MessageResponse("Deleted sucessfully"));
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new MessageResponse("Something went wrong"));
 
     }
 
     @PostMapping("/updateBlog")
-    ResponseEntity<String> updateBlog( @RequestParam Integer id,@Valid @RequestBody BlogEntity blog){
+    ResponseEntity<MessageResponse> updateBlog( @RequestParam Integer id,@Valid @RequestBody BlogEntity blog){
         boolean isUpdated=blogService.updateBlog(id,blog);
         if (isUpdated)
-            return ResponseEntity.status(HttpStatus.OK).body("Updated sucessfully");
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Blog not found");
+            return ResponseEntity.status(HttpStatus.OK).body(new MessageResponse("Updated sucessfully"));
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new MessageResponse("Blog not found"));
 
     }
 
+    @GetMapping("/{id}/revisions")
+    ResponseEntity<List<RevisionService.RevisionSummary>> revisions(@PathVariable Integer id){
+        return ResponseEntity.ok(revisionService.list(id));
+    }
 
+    @GetMapping("/{id}/revisions/{revision}")
+    ResponseEntity<RevisionService.Revision> revision(@PathVariable Integer id, @PathVariable Integer revision){
+        return ResponseEntity.of(revisionService.find(id, revision));
+    }
+
+    // Unified diff of the content, e.g. /blog/7/revisions/diff?from=2&to=5
+    @GetMapping(value = "/{id}/revisions/diff", produces = MediaType.TEXT_PLAIN_VALUE)
+    ResponseEntity<String> revisionDiff(@PathVariable Integer id, @RequestParam Integer from, @RequestParam Integer to){
+        return ResponseEntity.of(revisionService.diff(id, from, to));
+    }
 }
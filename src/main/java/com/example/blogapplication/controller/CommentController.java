@@ -0,0 +1,80 @@
+package com.example.blogapplication.controller;
+
+import com.example.blogapplication.db2.entities.CommentEntity;
+import com.example.blogapplication.model.CommentPage;
+import com.example.blogapplication.model.CommentResponse;
+import com.example.blogapplication.model.CommentThreadResponse;
+import com.example.blogapplication.model.CommentView;
+import com.example.blogapplication.model.MessageResponse;
+import com.example.blogapplication.services.blog.CommentService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@Timed("blog.controller")
+@RequestMapping("/blog/{blogId}/comments")
+public class CommentController {
+    @Autowired
+    private CommentService commentService;
+
+    @PostMapping
+    ResponseEntity<CommentResponse> addComment(@PathVariable Integer blogId,
+                                               @RequestParam(required = false) Integer parentId,
+                                               @Valid @RequestBody CommentEntity comment,
+                                               Principal principal) {
+        comment.setAuthor(principal.getName());
+        return switch (commentService.addComment(blogId, parentId, comment)) {
+            case ADDED -> ResponseEntity.status(HttpStatus.CREATED).body(new CommentResponse("Comment added", CommentView.of(comment)));
+            case BLOG_NOT_FOUND -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(new CommentResponse("Blog not found", null));
+            case PARENT_NOT_FOUND -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(new CommentResponse("Parent comment not found", null));
+            case TOO_DEEP -> ResponseEntity.badRequest()
+                    .body(new CommentResponse("Reply nesting is limited to " + CommentService.MAX_DEPTH + " levels", null));
+        };
+    }
+
+    // Top-level comments (with their reply counts); next page with ?after=<last id>
+    @GetMapping
+    ResponseEntity<CommentPage<Integer>> topLevel(@PathVariable Integer blogId,
+                                                  @RequestParam(defaultValue = "0") Integer after,
+                                                  @RequestParam(defaultValue = "0") Integer limit) {
+        List<CommentEntity> comments = commentService.topLevel(blogId, after, limit);
+        return ResponseEntity.ok(page(comments, comments.isEmpty() ? null : comments.get(comments.size() - 1).getId()));
+    }
+
+    // Every comment of the blog in thread order; next page with ?after=<last path>
+    @GetMapping("/thread")
+    ResponseEntity<CommentPage<String>> thread(@PathVariable Integer blogId,
+                                               @RequestParam(required = false) String after,
+                                               @RequestParam(defaultValue = "0") Integer limit) {
+        List<CommentEntity> comments = commentService.thread(blogId, after, limit);
+        return ResponseEntity.ok(page(comments, lastPath(comments)));
+    }
+
+    // A comment and its replies in thread order; next page with ?after=<last path>
+    @GetMapping("/{commentId}/thread")
+    ResponseEntity<CommentThreadResponse> subtree(@PathVariable Integer blogId,
+                                                  @PathVariable Integer commentId,
+                                                  @RequestParam(required = false) String after,
+                                                  @RequestParam(defaultValue = "0") Integer limit) {
+        Optional<List<CommentEntity>> comments = commentService.subtree(blogId, commentId, after, limit);
+        if (comments.isEmpty())
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new MessageResponse("Comment not found"));
+        return ResponseEntity.ok(page(comments.get(), lastPath(comments.get())));
+    }
+
+    private static <C> CommentPage<C> page(List<CommentEntity> comments, C next) {
+        return new CommentPage<>(comments.stream().map(CommentView::of).toList(), next);
+    }
+
+    private static String lastPath(List<CommentEntity> comments) {
+        return comments.isEmpty() ? null : comments.get(comments.size() - 1).getPath();
+    }
+}
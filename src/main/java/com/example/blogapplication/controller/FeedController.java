@@ -0,0 +1,56 @@
+package com.example.blogapplication.controller;
+
+import com.example.blogapplication.services.blog.FeedService;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+
+@RestController
+@Timed("blog.controller")
+public class FeedController {
+
+    private static final MediaType RSS = MediaType.parseMediaType("application/rss+xml;charset=UTF-8");
+    private static final MediaType ATOM = MediaType.parseMediaType("application/atom+xml;charset=UTF-8");
+    private static final MediaType XML = MediaType.parseMediaType("application/xml;charset=UTF-8");
+    // Short enough for readers to notice new posts; revalidation is a 304 against the ETag
+    private static final CacheControl CACHE = CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic();
+
+    @Autowired
+    private FeedService feedService;
+
+    @GetMapping("/rss.xml")
+    ResponseEntity<byte[]> rss(WebRequest request) {
+        return serve(feedService.rss(), RSS, request);
+    }
+
+    @GetMapping("/atom.xml")
+    ResponseEntity<byte[]> atom(WebRequest request) {
+        return serve(feedService.atom(), ATOM, request);
+    }
+
+    @GetMapping("/sitemap.xml")
+    ResponseEntity<byte[]> sitemapIndex(WebRequest request) {
+        return serve(feedService.sitemapIndex(), XML, request);
+    }
+
+    @GetMapping("/sitemap-{shard:\\d{1,9}}.xml")
+    ResponseEntity<byte[]> sitemap(@PathVariable int shard, WebRequest request) {
+        return feedService.sitemapShard(shard)
+                .map(document -> serve(document, XML, request))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static ResponseEntity<byte[]> serve(FeedService.Document document, MediaType type, WebRequest request) {
+        if (request.checkNotModified(document.etag()))
+            return ResponseEntity.status(304).eTag(document.etag()).cacheControl(CACHE).build();
+        return ResponseEntity.ok().contentType(type).eTag(document.etag()).cacheControl(CACHE).body(document.body());
+    }
+}
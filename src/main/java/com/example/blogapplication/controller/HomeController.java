@@ -1,10 +1,14 @@
 package com.example.blogapplication.controller;
 
 import com.example.blogapplication.db1.entities.UserEntity;
+import com.example.blogapplication.model.LoginResponse;
+import com.example.blogapplication.model.MessageResponse;
+import com.example.blogapplication.model.UserView;
 import com.example.blogapplication.services.JWTService;
 import com.example.blogapplication.services.user.UserService;
 import com.example.blogapplication.util.User;
 import jakarta.validation.Valid;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,11 +17,10 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Optional;
 
 @RestController
+@Timed("blog.controller")
 @RequestMapping("/")
 public class HomeController {
     @Autowired
@@ -29,7 +32,7 @@ public class HomeController {
     @Autowired
     private AuthenticationManager authenticationManager;
     @PostMapping("/register")
-    public ResponseEntity<String> save(@Valid @ModelAttribute UserEntity user){
+    public ResponseEntity<MessageResponse> save(@Valid @ModelAttribute UserEntity user){
         boolean isExist=userService.checkUserExist(user.getEmail());
         if (!isExist){
 
@@ -40,21 +43,20 @@ public class HomeController {
 
         boolean saveUser=userService.saveUser(user);
         if (saveUser)
-            return  ResponseEntity.ok("User saved");
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Something went wrong ");
+            return  ResponseEntity.ok(new MessageResponse("User saved"));
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new MessageResponse("Something went wrong"));
 
             }
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Wrong credentials");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new MessageResponse("Wrong credentials"));
         }
 
-        return ResponseEntity.status(HttpStatus.OK).body("User Already Exist");
+        return ResponseEntity.status(HttpStatus.OK).body(new MessageResponse("User Already Exist"));
 
     }
 
 @PostMapping("/login")
-public ResponseEntity<Map<String,Object>> logUser(@Valid @ModelAttribute User user) {
+public ResponseEntity<LoginResponse> logUser(@Valid @ModelAttribute User user) {
     Optional<UserEntity> userEntity = userService.findUserByEmail(user.getEmail());
-    Map<String, Object> map = new HashMap<>(); // Use Object instead of ?
 
     if (userEntity.isPresent()) {
         UsernamePasswordAuthenticationToken token=new UsernamePasswordAuthenticationToken(user.getEmail(),user.getPassword());
@@ -62,18 +64,11 @@ public ResponseEntity<Map<String,Object>> logUser(@Valid @ModelAttribute User us
         Authentication authenticate = authenticationManager.authenticate(token);
 if(authenticate.isAuthenticated())
          {
-            map.put("message", "Login Successful");
-             System.out.println(user.getEmail());
-            map.put("token",jwtService.generateToken(user.getEmail()));
-            map.put("body", userEntity.get());
-            return ResponseEntity.ok(map);
+            return ResponseEntity.ok(new LoginResponse("Login Successful", jwtService.generateToken(user.getEmail()), UserView.of(userEntity.get())));
         }
-        map.put("message", "Login failed!!!");
-        map.put("body", null);
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(map);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(LoginResponse.failed("Login failed!!!"));
     } else {
-        map.put("message", "Email not found");
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(map);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(LoginResponse.failed("Email not found"));
     }
 }
 
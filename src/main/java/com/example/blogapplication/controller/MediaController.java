@@ -0,0 +1,135 @@
+package com.example.blogapplication.controller;
+
+import com.example.blogapplication.model.UploadResponse;
+import com.example.blogapplication.services.media.ImageStore;
+import com.example.blogapplication.services.media.ThumbnailPipeline;
+import io.micrometer.core.annotation.Timed;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@RestController
+@Timed("blog.controller")
+public class MediaController {
+
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    @Autowired
+    private ImageStore imageStore;
+    @Autowired
+    private ThumbnailPipeline thumbnailPipeline;
+
+    // Returns as soon as the original is on disk; the thumbnail follows in the background
+    @PostMapping("/blog/images")
+    ResponseEntity<UploadResponse> upload(@RequestParam("file") MultipartFile file) throws IOException {
+        Optional<ImageStore.StoredImage> stored;
+        try (InputStream in = file.getInputStream()) {
+            stored = imageStore.store(in);
+        }
+        if (stored.isEmpty())
+            return ResponseEntity.badRequest().body(new UploadResponse("Only PNG, JPEG, GIF and WebP images are accepted", null, null));
+        String name = stored.get().name();
+        if (stored.get().created())
+            thumbnailPipeline.submit(name);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(new UploadResponse("Image uploaded", "/media/" + name, "/media/thumbs/" + name));
+    }
+
+    @GetMapping("/media/{name}")
+    void original(@PathVariable String name, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!ImageStore.NAME.matcher(name).matches()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        serve(imageStore.original(name), name, "\"" + name + "\"", IMMUTABLE, request, response);
+    }
+
+    // Until the thumbnail exists the original is served, cached only briefly
+    @GetMapping("/media/thumbs/{name}")
+    void thumbnail(@PathVariable String name, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!ImageStore.NAME.matcher(name).matches()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Path thumbnail = imageStore.thumbnail(name);
+        if (Files.exists(thumbnail))
+            serve(thumbnail, name, "\"thumb-" + name + "\"", IMMUTABLE, request, response);
+        else
+            serve(imageStore.original(name), name, "\"" + name + "\"", "public, max-age=60", request, response);
+    }
+
+    private void serve(Path file, String name, String etag, String cacheControl,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long length = Files.size(file);
+        long start = 0;
+        long end = length - 1;
+        // A single byte range; anything else (multiple ranges, garbage) gets the whole file
+        String range = request.getHeader(HttpHeaders.RANGE);
+        Matcher matcher = range == null ? null : RANGE.matcher(range);
+        if (matcher != null && matcher.matches() && !(matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+            if (matcher.group(1).isEmpty()) {
+                start = Math.max(0, length - Long.parseLong(matcher.group(2)));
+            } else {
+                start = Long.parseLong(matcher.group(1));
+                if (!matcher.group(2).isEmpty())
+                    end = Math.min(end, Long.parseLong(matcher.group(2)));
+            }
+            if (start >= length || start > end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        long count = end - start + 1;
+        response.setContentType(MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()))
+            return;
+
+        // Zero-copy: Tomcat's NIO connector sends the file itself with sendfile once this handler returns
+        if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", start);
+            request.setAttribute("org.apache.tomcat.sendfile.end", end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long sent = 0; sent < count; )
+                sent += channel.transferTo(start + sent, count - sent, out);
+        }
+    }
+}
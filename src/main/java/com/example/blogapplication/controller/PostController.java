@@ -0,0 +1,69 @@
+package com.example.blogapplication.controller;
+
+import com.example.blogapplication.db2.reactive.BlogPost;
+import com.example.blogapplication.model.PostViews;
+import com.example.blogapplication.services.blog.LiveFeed;
+import com.example.blogapplication.services.blog.PostReadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Non-blocking read API over blog_db. Lists are streamed as NDJSON (one post per line, written as
+ * rows arrive and only as fast as the client reads); plain {@code application/json} clients get an array.
+ * Writes stay on {@link BlogController}.
+ */
+@RestController
+@RequestMapping("/api/posts")
+public class PostController {
+    @Autowired
+    private PostReadService postReadService;
+    @Autowired
+    private LiveFeed liveFeed;
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<BlogPost> feed(@RequestParam(required = false) List<String> tags,
+                               @RequestParam(required = false) List<String> anyTags,
+                               @RequestParam(required = false) Integer before,
+                               @RequestParam(required = false) Integer limit) {
+        // ?tags=a,b -> tagged a AND b; ?anyTags=c,d -> tagged c OR d; both -> (a AND b) AND (c OR d)
+        if (tags != null || anyTags != null)
+            return postReadService.feedByTags(tags, anyTags, before, limit);
+        return postReadService.feed(before, limit);
+    }
+
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<BlogPost> search(@RequestParam String q,
+                                 @RequestParam(required = false) Integer before,
+                                 @RequestParam(required = false) Integer limit) {
+        return postReadService.search(q, before, limit);
+    }
+
+    // Server-sent events for created/updated/deleted posts; EventSource reconnects resume from Last-Event-ID
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public void live(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!liveFeed.subscribe(request, response, lastEventId))
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<BlogPost>> post(@PathVariable Integer id) {
+        return postReadService.findById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/views")
+    public Mono<PostViews> views(@PathVariable Integer id) {
+        return postReadService.views(id).map(views -> new PostViews(id, views));
+    }
+}
@@ -2,22 +2,24 @@ package com.example.blogapplication.controller;
 
 
 import com.example.blogapplication.db1.entities.UserEntity;
+import com.example.blogapplication.model.MessageResponse;
 import com.example.blogapplication.services.EmailService;
 import com.example.blogapplication.services.JWTService;
 import com.example.blogapplication.services.user.UserService;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
 @RestController
+@Timed("blog.controller")
 @RequestMapping("/user")
 public class UserController
 {
@@ -32,33 +34,31 @@ JWTService jwtService;
 
 
     @PostMapping("/forgot-password")
-    public ResponseEntity<Map<String,Object>> forgotPassword(@RequestParam  String email){
+    public ResponseEntity<MessageResponse> forgotPassword(@RequestParam  String email){
         boolean isEmailCorrect = userService.checkEmail(email);
-        Map<String,Object> map=new HashMap<>();
+        if (!emailService.isAvailable())
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(new MessageResponse("Email is temporarily unavailable, please try again later"));
         if (isEmailCorrect){
             Optional<UserEntity> userByEmail = userService.findUserByEmail(email);
             if (userByEmail.isPresent()){
                 String token=jwtService.generateToken( String.valueOf(userByEmail.get().getId()));
                 userByEmail.get().setResetToken(token);
                 userService.saveUser(userByEmail.get());
-                boolean b = emailService.sendEmail(email, token);
-                map.put("message","Email is sent to your email");
-                return ResponseEntity.ok(map);
+                emailService.sendEmail(email, token);
+                return ResponseEntity.ok(new MessageResponse("Email is sent to your email"));
             }
             else {
-                map.put("message","Email not found");
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(map);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new MessageResponse("Email not found"));
             }
 
         }
-        map.put("message","Please provide a valid email");
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(map);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new MessageResponse("Please provide a valid email"));
     }
 
     @PostMapping ("/reset-password")
-    public ResponseEntity<Map<String,Object>> changePassword(@ModelAttribute UserEntity user,@RequestParam String token){
+    public ResponseEntity<MessageResponse> changePassword(@ModelAttribute UserEntity user,@RequestParam String token){
         boolean isPasswordCorrect = userService.checkPassword(user.getPassword(), user.getConfirmpassword());
-        Map<String,Object> map=new HashMap<>();
         if (isPasswordCorrect){
             String id =jwtService.extractUserName(token);
             UserEntity userEntity = userService.findUserById(Integer.parseInt(id));
@@ -68,19 +68,15 @@ if (!ObjectUtils.isEmpty(userEntity)){
     userEntity.setResetToken(null);
     boolean b = userService.saveUser(userEntity);
     if (b){
-        map.put("message","Password changed!!!");
-        return ResponseEntity.ok(map);
+        return ResponseEntity.ok(new MessageResponse("Password changed!!!"));
     }
-    map.put("message","Something went wrong!!!");
-    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(map);
+    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new MessageResponse("Something went wrong!!!"));
 
 }
-            map.put("message","Please provide the valid token");
-            return ResponseEntity.ok(map);
+            return ResponseEntity.ok(new MessageResponse("Please provide the valid token"));
         }
         else{
-            map.put("message","Please provide the password with proper format");
-            return ResponseEntity.ok(map);
+            return ResponseEntity.ok(new MessageResponse("Please provide the password with proper format"));
         }
     }
 
@@ -1,13 +1,18 @@
 package com.example.blogapplication.db1.repositories;
 
 import com.example.blogapplication.db1.entities.UserEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<UserEntity,Integer> {
 
 
+    // Hit on every authenticated request: load without a dirty-checking snapshot
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     Optional<UserEntity> findByEmail(String email);
 }
 
@@ -3,12 +3,17 @@ package com.example.blogapplication.db2.entities;
 import jakarta.persistence.*;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import com.example.blogapplication.util.CompressedContentConverter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 @Entity
 @Table(name = "blogs")
@@ -27,8 +32,15 @@ public class BlogEntity {
   private String title;
     @NotBlank(message = "Content cannot be empty")
     @Size(min = 10, message = "Content must have at least 10 characters")
+    // Possibly compressed in the column; see ContentCodec
+    @Convert(converter = CompressedContentConverter.class)
+    @Column(columnDefinition = "MEDIUMTEXT")
   private String content;
 
+    // Rendered from content by BlogService on every write; never taken from the request
+    @Column(name = "content_html", columnDefinition = "MEDIUMTEXT")
+    private String contentHtml;
+
     @NotBlank(message = "Author name is required")
     private String author;
 
@@ -36,6 +48,27 @@ public class BlogEntity {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    // Set from the url returned by POST /blog/images
+    @Pattern(regexp = "/media/[0-9a-f]{64}\\.(png|jpg|gif|webp)", message = "Image must be a /media url returned by the upload")
+    private String image;
+
+    // Lower-case slugs; filtering by tag goes through TagIndex
+    @Size(max = 10, message = "At most 10 tags")
+    @ElementCollection
+    @CollectionTable(name = "blog_tags", joinColumns = @JoinColumn(name = "blog_id"))
+    @Column(name = "tag", length = 32)
+    private Set<@Pattern(regexp = "[a-z0-9][a-z0-9-]{0,31}", message = "Tags are lower-case letters, digits and '-'") String> tags = new LinkedHashSet<>();
+
+    // "tags": null in a request means no tags
+    public void setTags(Set<String> tags) {
+        this.tags = tags == null ? new LinkedHashSet<>() : tags;
+    }
+
+    // Content lives in BlogArchive's segments (see BlogService.findById); never taken from the request
+    @JsonIgnore
+    @Column(nullable = false)
+    private boolean archived;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
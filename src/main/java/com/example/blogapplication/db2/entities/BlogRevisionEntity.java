@@ -0,0 +1,43 @@
+package com.example.blogapplication.db2.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "blog_revisions")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BlogRevisionEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int id;
+
+    @Column(name = "blog_id", nullable = false, updatable = false)
+    private int blogId;
+
+    // 1 for the blog as created, then one per update
+    @Column(nullable = false, updatable = false)
+    private int revision;
+
+    // true: body is the full content; false: body is a LineDelta against the previous revision
+    @Column(nullable = false, updatable = false)
+    private boolean snapshot;
+
+    private String title;
+
+    private String author;
+
+    @Column(columnDefinition = "MEDIUMTEXT", nullable = false, updatable = false)
+    private String body;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,60 @@
+package com.example.blogapplication.db2.entities;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "comments")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int id;
+
+    @Column(name = "blog_id", nullable = false, updatable = false)
+    private int blogId;
+
+    // null for a top-level comment
+    @Column(name = "parent_id", updatable = false)
+    private Integer parentId;
+
+    // Ancestors' ids plus this comment's own id, each zero-padded to PATH_SEGMENT_WIDTH and followed by '/'
+    @Column(nullable = false)
+    private String path;
+
+    @Column(nullable = false, updatable = false)
+    private int depth;
+
+    // Direct replies, maintained by CommentService so listings never count rows
+    @Column(name = "reply_count", nullable = false)
+    private int replyCount;
+
+    private String author;
+
+    @NotBlank(message = "Comment cannot be empty")
+    @Size(max = 2000, message = "Comment must be at most 2000 characters")
+    @Column(length = 2000, nullable = false)
+    private String content;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // Digits of Integer.MAX_VALUE: every id sorts by its value
+    public static final int PATH_SEGMENT_WIDTH = 10;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
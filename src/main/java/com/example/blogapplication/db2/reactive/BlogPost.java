@@ -0,0 +1,34 @@
+package com.example.blogapplication.db2.reactive;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only R2DBC view of a row in {@code blogs}. Writes keep going through
+ * {@link com.example.blogapplication.db2.entities.BlogEntity} and JPA.
+ */
+@Table("blogs")
+public record BlogPost(
+        @Id Integer id,
+        String title,
+        String content,
+        String author,
+        @Column("created_at") LocalDateTime createdAt,
+        @Column("updatedAt") LocalDateTime updatedAt,
+        String image,
+        @Column("content_html") String contentHtml,
+        // Storage detail (content is in BlogArchive); not part of the API
+        @JsonIgnore Boolean archived) {
+
+    public BlogPost withContent(String content) {
+        return new BlogPost(id, title, content, author, createdAt, updatedAt, image, contentHtml, archived);
+    }
+
+    public BlogPost withContentHtml(String contentHtml) {
+        return new BlogPost(id, title, content, author, createdAt, updatedAt, image, contentHtml, archived);
+    }
+}
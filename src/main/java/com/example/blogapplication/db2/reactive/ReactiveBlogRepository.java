@@ -0,0 +1,36 @@
+package com.example.blogapplication.db2.reactive;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+// Newest first; pages are keyed on id (a primary-key range scan) instead of OFFSET
+public interface ReactiveBlogRepository extends Repository<BlogPost, Integer> {
+
+    Mono<BlogPost> findById(Integer id);
+
+    @Query("SELECT * FROM blogs ORDER BY id DESC LIMIT :limit")
+    Flux<BlogPost> findLatest(int limit);
+
+    @Query("SELECT * FROM blogs WHERE id < :before ORDER BY id DESC LIMIT :limit")
+    Flux<BlogPost> findLatestBefore(int before, int limit);
+
+    @Query("SELECT * FROM blogs WHERE id < :before AND (title LIKE :pattern OR author LIKE :pattern) ORDER BY id DESC LIMIT :limit")
+    Flux<BlogPost> search(String pattern, int before, int limit);
+
+    // Backfills rows written before content_html existed; a concurrent write's rendering wins
+    @Modifying
+    @Query("UPDATE blogs SET content_html = :html WHERE id = :id AND content_html IS NULL")
+    Mono<Integer> saveContentHtml(int id, String html);
+
+    @Query("SELECT views FROM blog_views WHERE blog_id = :id")
+    Mono<Long> findViews(int id);
+
+    // Ids come from TagIndex, already limited to one page
+    @Query("SELECT * FROM blogs WHERE id IN (:ids) ORDER BY id DESC")
+    Flux<BlogPost> findAllByIdDesc(Collection<Integer> ids);
+}
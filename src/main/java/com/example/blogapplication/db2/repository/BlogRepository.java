@@ -1,8 +1,37 @@
 package com.example.blogapplication.db2.repository;
 
 import com.example.blogapplication.db2.entities.BlogEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface BlogRepository extends JpaRepository<BlogEntity,Integer> {
 
+    // (blog id, tag) pairs for building TagIndex without loading entities
+    @Query("select b.id, t from BlogEntity b join b.tags t")
+    List<Object[]> findAllTags();
+
+    // (id, created_at, views, comments) per blog, for seeding TrendingService
+    @Query(value = "SELECT b.id, b.created_at, COALESCE(v.views, 0), (SELECT COUNT(*) FROM comments c WHERE c.blog_id = b.id) "
+            + "FROM blogs b LEFT JOIN blog_views v ON v.blog_id = b.id", nativeQuery = true)
+    List<Object[]> findEngagement();
+
+    @Query("select b.id, b.createdAt from BlogEntity b where b.id > :after order by b.id")
+    List<Object[]> findCreatedAfter(int after);
+
+    // (id, last modified) per blog, for seeding FeedService's sitemap shards
+    @Query("select b.id, coalesce(b.updatedAt, b.createdAt) from BlogEntity b")
+    List<Object[]> findLastModified();
+
+    List<BlogEntity> findByOrderByIdDesc(Limit limit);
+
+    // SELECT ... FOR UPDATE: edits of one blog take turns until the editing transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from BlogEntity b where b.id = :id")
+    Optional<BlogEntity> findForUpdate(int id);
 }
@@ -0,0 +1,25 @@
+package com.example.blogapplication.db2.repository;
+
+import com.example.blogapplication.db2.entities.BlogRevisionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface BlogRevisionRepository extends JpaRepository<BlogRevisionEntity, Integer> {
+
+    // (revision, snapshot, title, author, created_at, body length), newest first, without loading bodies
+    @Query("select r.revision, r.snapshot, r.title, r.author, r.createdAt, length(r.body) from BlogRevisionEntity r "
+            + "where r.blogId = :blogId order by r.revision desc")
+    List<Object[]> findSummaries(int blogId);
+
+    // (latest revision, latest snapshot revision); both null for a blog without history
+    @Query("select max(r.revision), max(case when r.snapshot = true then r.revision end) from BlogRevisionEntity r where r.blogId = :blogId")
+    List<Object[]> findHead(int blogId);
+
+    // The nearest snapshot at or before the revision, followed by the deltas up to it
+    @Query("select r from BlogRevisionEntity r where r.blogId = :blogId and r.revision <= :revision and r.revision >= "
+            + "(select max(s.revision) from BlogRevisionEntity s where s.blogId = :blogId and s.snapshot = true and s.revision <= :revision) "
+            + "order by r.revision")
+    List<BlogRevisionEntity> findChain(int blogId, int revision);
+}
@@ -0,0 +1,30 @@
+package com.example.blogapplication.db2.repository;
+
+import com.example.blogapplication.db2.entities.CommentEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface CommentRepository extends JpaRepository<CommentEntity,Integer> {
+
+    @Query("select c from CommentEntity c where c.blogId = :blogId and c.depth = 0 and c.id > :after order by c.id")
+    List<CommentEntity> findTopLevel(int blogId, int after, Limit limit);
+
+    // Range scan on ix_comments_blog_path; rows come back depth-first (thread order)
+    @Query("select c from CommentEntity c where c.blogId = :blogId and c.path > :after and c.path < :upper order by c.path")
+    List<CommentEntity> findPathRange(int blogId, String after, String upper, Limit limit);
+
+    // (blog id, new comments, highest comment id) for comments after the given id
+    @Query("select c.blogId, count(c), max(c.id) from CommentEntity c where c.id > :after group by c.blogId")
+    List<Object[]> countNewByBlog(int after);
+
+    @Query("select max(c.id) from CommentEntity c")
+    Integer findMaxId();
+
+    @Modifying
+    @Query("update CommentEntity c set c.replyCount = c.replyCount + 1 where c.id = :id")
+    int incrementReplyCount(int id);
+}
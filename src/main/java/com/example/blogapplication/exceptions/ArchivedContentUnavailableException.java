@@ -0,0 +1,13 @@
+package com.example.blogapplication.exceptions;
+
+/**
+ * A post is marked archived in blog_db but no segment under blog.archive.root holds its content, typically
+ * because this node does not see the archive root the archiving node wrote to. Surfaced as a 503 rather than
+ * serving the post with no content.
+ */
+public class ArchivedContentUnavailableException extends RuntimeException {
+
+    public ArchivedContentUnavailableException(int blogId) {
+        super("Blog " + blogId + " is archived but its content is in no segment visible to this node");
+    }
+}
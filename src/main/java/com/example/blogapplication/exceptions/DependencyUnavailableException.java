@@ -0,0 +1,22 @@
+package com.example.blogapplication.exceptions;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Refused before touching a dependency (user_db, blog_db, smtp) because its circuit breaker is open or its
+ * bulkhead is full. A SQLException so that data sources can throw it from getConnection; GlobalExceptionHandler
+ * turns it into a 503 wherever Spring or Hibernate wrapped it.
+ */
+public class DependencyUnavailableException extends SQLTransientConnectionException {
+
+    private final String dependency;
+
+    public DependencyUnavailableException(String dependency, String reason) {
+        super(dependency + " unavailable: " + reason);
+        this.dependency = dependency;
+    }
+
+    public String getDependency() {
+        return dependency;
+    }
+}
@@ -1,6 +1,12 @@
 package com.example.blogapplication.exceptions;
 
+import com.example.blogapplication.model.MessageResponse;
+import jakarta.persistence.PersistenceException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -21,6 +27,23 @@ public class GlobalExceptionHandler {
 
         return ResponseEntity.badRequest().body(errors);
     }
+
+    @ExceptionHandler(ArchivedContentUnavailableException.class)
+    public ResponseEntity<MessageResponse> handleArchivedContentUnavailable(ArchivedContentUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new MessageResponse("Archived content is unavailable on this node"));
+    }
+
+    // A breaker or bulkhead refused the database, however Spring/Hibernate wrapped it: fail fast with 503, nothing else here
+    @ExceptionHandler({DependencyUnavailableException.class, TransactionException.class, DataAccessException.class, PersistenceException.class})
+    public ResponseEntity<MessageResponse> handleDependencyUnavailable(Exception ex) throws Exception {
+        Throwable cause = ex;
+        while (cause != null && !(cause instanceof DependencyUnavailableException))
+            cause = cause.getCause();
+        if (cause == null)
+            throw ex;
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5")
+                .body(new MessageResponse("Service temporarily unavailable (" + ((DependencyUnavailableException) cause).getDependency() + "), please retry"));
+    }
 }
 
 //
@@ -0,0 +1,7 @@
+package com.example.blogapplication.model;
+
+import java.util.List;
+
+// next is the cursor for ?after= (a comment id or a thread path), null on the last page
+public record CommentPage<C>(List<CommentView> comments, C next) implements CommentThreadResponse {
+}
@@ -0,0 +1,5 @@
+package com.example.blogapplication.model;
+
+// A page of a comment's thread, or a message when the comment does not exist
+public sealed interface CommentThreadResponse permits CommentPage, MessageResponse {
+}
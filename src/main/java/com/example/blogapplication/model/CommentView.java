@@ -0,0 +1,14 @@
+package com.example.blogapplication.model;
+
+import com.example.blogapplication.db2.entities.CommentEntity;
+
+import java.time.LocalDateTime;
+
+public record CommentView(int id, int blogId, Integer parentId, String path, int depth, int replyCount,
+                          String author, String content, LocalDateTime createdAt) {
+
+    public static CommentView of(CommentEntity comment) {
+        return new CommentView(comment.getId(), comment.getBlogId(), comment.getParentId(), comment.getPath(), comment.getDepth(),
+                comment.getReplyCount(), comment.getAuthor(), comment.getContent(), comment.getCreatedAt());
+    }
+}
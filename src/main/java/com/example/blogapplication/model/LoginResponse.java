@@ -0,0 +1,11 @@
+package com.example.blogapplication.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record LoginResponse(String message, String token, UserView body) {
+
+    public static LoginResponse failed(String message) {
+        return new LoginResponse(message, null, null);
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.blogapplication.model;
+
+public record MessageResponse(String message) implements CommentThreadResponse {
+}
@@ -0,0 +1,4 @@
+package com.example.blogapplication.model;
+
+public record PostViews(int id, long views) {
+}
@@ -0,0 +1,7 @@
+package com.example.blogapplication.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UploadResponse(String message, String url, String thumbnail) {
+}
@@ -0,0 +1,11 @@
+package com.example.blogapplication.model;
+
+import com.example.blogapplication.db1.entities.UserEntity;
+
+// What a client may see of a user: never the password hash or a reset token
+public record UserView(Integer id, String name, String email) {
+
+    public static UserView of(UserEntity user) {
+        return new UserView(user.getId(), user.getName(), user.getEmail());
+    }
+}
@@ -1,10 +1,20 @@
 package com.example.blogapplication.services;
 
 
+import com.example.blogapplication.config.ResilienceConfig;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
@@ -13,13 +23,47 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Component
 public class EmailService {
     @Autowired
     public JavaMailSender mailSender;
-    public boolean sendEmail(String email,String token){
-        try {
+    @Autowired
+    private ObservationRegistry observationRegistry;
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    // False while SMTP's breaker is open: callers answer at once instead of promising a mail that won't be sent
+    public boolean isAvailable() {
+        CircuitBreaker.State state = circuitBreakerRegistry.circuitBreaker(ResilienceConfig.SMTP).getState();
+        return state != CircuitBreaker.State.OPEN && state != CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    // Runs on the application task executor (virtual threads when enabled) so SMTP never holds a request thread
+    @Async
+    public CompletableFuture<Boolean> sendEmail(String email,String token){
+        CircuitBreaker breaker=circuitBreakerRegistry.circuitBreaker(ResilienceConfig.SMTP);
+        Bulkhead bulkhead=bulkheadRegistry.bulkhead(ResilienceConfig.SMTP);
+        if (!breaker.tryAcquirePermission()){
+            Metrics.counter("blog.mail.failures","exception","CircuitOpen").increment();
+            log.warn("SMTP circuit breaker {}; not sending reset mail to {}", breaker.getState(), email);
+            return CompletableFuture.completedFuture(false);
+        }
+        if (!bulkhead.tryAcquirePermission()){
+            breaker.releasePermission();
+            Metrics.counter("blog.mail.failures","exception","BulkheadFull").increment();
+            log.warn("Too many reset mails in flight; not sending to {}", email);
+            return CompletableFuture.completedFuture(false);
+        }
+        long start=System.nanoTime();
+        // Timer blog.mail.send{outcome} plus a span, parented to the request through the context-propagating task decorator
+        Observation observation=Observation.createNotStarted("blog.mail.send",observationRegistry).contextualName("smtp-send").start();
+        try (Observation.Scope scope=observation.openScope()) {
             MimeMessage message=mailSender.createMimeMessage();
             MimeMessageHelper helper=new MimeMessageHelper(message,true);
             helper.setTo(email);
@@ -39,11 +83,20 @@ public class EmailService {
 //            helper.addInline("icon", imageFile);
 
             mailSender.send(message);
-            return true;
+            breaker.onSuccess(System.nanoTime()-start, TimeUnit.NANOSECONDS);
+            observation.lowCardinalityKeyValue("outcome","success");
+            return CompletableFuture.completedFuture(true);
         }
         catch (Exception exception){
-            System.out.println(exception.getMessage());
-            return false;
+            breaker.onError(System.nanoTime()-start, TimeUnit.NANOSECONDS, exception);
+            observation.lowCardinalityKeyValue("outcome","failure").error(exception);
+            Metrics.counter("blog.mail.failures","exception",exception.getClass().getSimpleName()).increment();
+            log.error("Could not send reset mail to {}", email, exception);
+            return CompletableFuture.completedFuture(false);
+        }
+        finally {
+            bulkhead.onComplete();
+            observation.stop();
         }
     }
 
@@ -0,0 +1,193 @@
+package com.example.blogapplication.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Remembers the responses of writes sent with an {@code Idempotency-Key} so a retried request is answered with the
+ * original response instead of running again. Recent keys live in a bounded in-memory map where a duplicate arriving
+ * while the original is still running waits for it; every key is also claimed in {@code idempotency_keys} (blog_db)
+ * before its request runs, which carries replays past the memory bound and across nodes until the TTL.
+ * <p>
+ * Server errors are not remembered: the claim is dropped and the next attempt with the key runs normally. A claim
+ * left unanswered for longer than {@code blog.idempotency.lease} (its node died mid-request) is taken over by the
+ * next attempt; the original, if it does finish, can then no longer overwrite or release the new claim.
+ */
+@Slf4j
+@Service
+public class IdempotencyStore {
+
+    public record Response(int status, String contentType, byte[] body) {
+    }
+
+    public enum Outcome {
+        // The caller runs the request and must hand the result to complete()/abandon()
+        EXECUTE,
+        // Already answered: send the stored response
+        REPLAY,
+        // Same key, different request
+        MISMATCH,
+        // Still running on another node (or here, for longer than the wait timeout)
+        IN_PROGRESS
+    }
+
+    public record Claim(Outcome outcome, Response response, Pending pending) {
+    }
+
+    public static final class Pending {
+        private final String fingerprint;
+        // Completed with the response, or with null if the original was abandoned
+        private final CompletableFuture<Response> response = new CompletableFuture<>();
+        // claimed_at of the row this node wrote; identifies the claim when completing or releasing it
+        private Timestamp claimedAt;
+
+        private Pending(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private static final String SELECT = "SELECT fingerprint, status, content_type, body FROM idempotency_keys WHERE idem_key = ? AND expires_at > ?";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Duration lease;
+    private final Cache<String, Pending> recent;
+
+    @Autowired
+    public IdempotencyStore(@Qualifier("blogDataSource") DataSource blogDataSource,
+                            @Value("${blog.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${blog.idempotency.maximum-size:10000}") long maximumSize,
+                            @Value("${blog.idempotency.wait-timeout:10s}") Duration waitTimeout,
+                            @Value("${blog.idempotency.lease:2m}") Duration lease) {
+        if (lease.compareTo(waitTimeout) <= 0)
+            throw new IllegalStateException("blog.idempotency.lease must be longer than blog.idempotency.wait-timeout");
+        this.jdbcTemplate = new JdbcTemplate(blogDataSource);
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.lease = lease;
+        this.recent = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).build();
+    }
+
+    public Claim claim(String key, String fingerprint) {
+        while (true) {
+            Pending mine = new Pending(fingerprint);
+            Pending existing = recent.asMap().putIfAbsent(key, mine);
+            Claim claim = existing != null ? await(existing, fingerprint) : claimRow(key, mine);
+            if (claim != null) {
+                meterRegistry.counter("blog.idempotency.requests", "outcome", claim.outcome().name().toLowerCase()).increment();
+                return claim;
+            }
+            // The original was abandoned: try to become the one running it
+        }
+    }
+
+    public void complete(String key, Claim claim, Response response) {
+        if (response.status() >= 500) {
+            abandon(key, claim);
+            return;
+        }
+        try {
+            int updated = jdbcTemplate.update("UPDATE idempotency_keys SET status = ?, content_type = ?, body = ? WHERE idem_key = ? AND claimed_at = ?",
+                    response.status(), response.contentType(), response.body(), key, claim.pending().claimedAt);
+            if (updated == 0)
+                log.warn("Idempotency key was taken over after its lease lapsed; this response is not stored");
+        } catch (RuntimeException e) {
+            // Still answered from memory on this node; only replays elsewhere or after eviction are lost
+            log.warn("Could not store the response for an idempotency key", e);
+        }
+        claim.pending().response.complete(response);
+    }
+
+    public void abandon(String key, Claim claim) {
+        try {
+            jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idem_key = ? AND status IS NULL AND claimed_at = ?", key, claim.pending().claimedAt);
+        } catch (RuntimeException e) {
+            log.warn("Could not release an idempotency key; it stays claimed until it expires", e);
+        } finally {
+            recent.asMap().remove(key, claim.pending());
+            claim.pending().response.complete(null);
+        }
+    }
+
+    private Claim await(Pending existing, String fingerprint) {
+        if (!existing.fingerprint.equals(fingerprint))
+            return new Claim(Outcome.MISMATCH, null, null);
+        try {
+            Response response = existing.response.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            return response == null ? null : new Claim(Outcome.REPLAY, response, null);
+        } catch (TimeoutException e) {
+            return new Claim(Outcome.IN_PROGRESS, null, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Claim(Outcome.IN_PROGRESS, null, null);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    // Holding the in-memory slot; the row decides between this node and the others (and keys evicted from memory)
+    private Claim claimRow(String key, Pending mine) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        try {
+            // Expired, or claimed by a node that never answered within the lease
+            jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idem_key = ? AND (expires_at <= ? OR status IS NULL AND (claimed_at IS NULL OR claimed_at <= ?))",
+                    key, Timestamp.valueOf(now), Timestamp.valueOf(now.minus(lease)));
+            mine.claimedAt = Timestamp.valueOf(now);
+            jdbcTemplate.update("INSERT INTO idempotency_keys (idem_key, fingerprint, claimed_at, expires_at) VALUES (?, ?, ?, ?)",
+                    key, mine.fingerprint, mine.claimedAt, Timestamp.valueOf(now.plus(ttl)));
+            return new Claim(Outcome.EXECUTE, null, mine);
+        } catch (DuplicateKeyException e) {
+            List<Claim> stored = jdbcTemplate.query(SELECT, (rs, i) -> {
+                if (!rs.getString(1).equals(mine.fingerprint))
+                    return new Claim(Outcome.MISMATCH, null, null);
+                int status = rs.getInt(2);
+                return rs.wasNull() ? new Claim(Outcome.IN_PROGRESS, null, null)
+                        : new Claim(Outcome.REPLAY, new Response(status, rs.getString(3), rs.getBytes(4)), null);
+            }, key, Timestamp.valueOf(now));
+            // Gone again (abandoned or expired) means another attempt at claiming it
+            Claim claim = stored.isEmpty() ? null : stored.getFirst();
+            if (claim != null && claim.outcome() == Outcome.REPLAY) {
+                mine.response.complete(claim.response());
+            } else {
+                recent.asMap().remove(key, mine);
+                mine.response.complete(null);
+            }
+            return claim;
+        } catch (RuntimeException e) {
+            recent.asMap().remove(key, mine);
+            mine.response.complete(null);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${blog.idempotency.purge-interval:10m}")
+    public void purge() {
+        int purged = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at <= ?", Timestamp.valueOf(LocalDateTime.now()));
+        if (purged > 0)
+            log.debug("Purged {} expired idempotency keys", purged);
+    }
+}
@@ -5,6 +5,8 @@ import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
@@ -18,15 +20,19 @@ import java.util.function.Function;
 public class JWTService {
     public  final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
 
+    // Registered on the global registry (Boot adds its Prometheus registry to it) so `new JWTService()` keeps working
+    private final Timer signTimer = Timer.builder("blog.jwt.sign").description("Time spent building and signing a token").register(Metrics.globalRegistry);
+    private final Timer parseTimer = Timer.builder("blog.jwt.parse").description("Time spent parsing and verifying a token").register(Metrics.globalRegistry);
+
     public String generateToken(String username){
         Map<String,Object> claims=new HashMap<>();
         return createToken(claims,username);
     }
 
     private String createToken(Map<String, Object> claims, String username) {
-        return Jwts.builder().setClaims(claims).setSubject(username).setIssuedAt(new Date()).setExpiration(
+        return signTimer.record(() -> Jwts.builder().setClaims(claims).setSubject(username).setIssuedAt(new Date()).setExpiration(
                 new Date(System.currentTimeMillis()+1000*60*10)).signWith(getSignKey(), SignatureAlgorithm.HS256
-        ).compact();
+        ).compact());
     }
     private Key getSignKey(){
         byte[] keyBytes= Decoders.BASE64.decode(SECRET);
@@ -46,11 +52,11 @@ public class JWTService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
+        return parseTimer.record(() -> Jwts.parserBuilder()
                 .setSigningKey(getSignKey())
                 .build()
                 .parseClaimsJws(token)
-                .getBody();
+                .getBody());
     }
 
     private Boolean isTokenExpired(String token) {
@@ -0,0 +1,220 @@
+package com.example.blogapplication.services.archive;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * One immutable archive segment file, memory-mapped for reading.
+ * <pre>
+ * header   MAGIC, VERSION
+ * records  id, rawLength, storedLength, crc32(raw), LZ4(raw)       ascending id; raw = content, contentHtml
+ * index    (id, offset) of every INDEX_INTERVAL-th record
+ * trailer  indexCount, minId, maxId, indexOffset, MAGIC
+ * </pre>
+ * A lookup binary-searches the sparse index and scans at most INDEX_INTERVAL record headers. Segments are
+ * written to a temporary file and renamed into place once complete, so a reader never sees a partial one.
+ */
+final class ArchiveSegment {
+
+    record Entry(String content, String contentHtml) {
+    }
+
+    static final String SUFFIX = ".blga";
+    private static final int MAGIC = 0x424c4741; // "BLGA"
+    private static final int VERSION = 1;
+    private static final int HEADER = 8;
+    private static final int RECORD_HEADER = 16;
+    private static final int TRAILER = 20;
+    static final int INDEX_INTERVAL = 32;
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    final Path path;
+    private final MappedByteBuffer buffer;
+    private final int[] indexIds;
+    private final int[] indexOffsets;
+    private final int minId;
+    private final int maxId;
+    private final int dataEnd;
+
+    private ArchiveSegment(Path path, MappedByteBuffer buffer, int[] indexIds, int[] indexOffsets, int minId, int maxId, int dataEnd) {
+        this.path = path;
+        this.buffer = buffer;
+        this.indexIds = indexIds;
+        this.indexOffsets = indexOffsets;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.dataEnd = dataEnd;
+    }
+
+    static ArchiveSegment open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE || channel.size() < HEADER + TRAILER)
+                throw new IOException("Not an archive segment: " + path);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int end = buffer.limit();
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(end - 4) != MAGIC)
+            throw new IOException("Not an archive segment (or not completely written): " + path);
+        int count = buffer.getInt(end - TRAILER);
+        int indexOffset = buffer.getInt(end - 8);
+        int[] ids = new int[count];
+        int[] offsets = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = buffer.getInt(indexOffset + i * 8);
+            offsets[i] = buffer.getInt(indexOffset + i * 8 + 4);
+        }
+        return new ArchiveSegment(path, buffer, ids, offsets, buffer.getInt(end - 16), buffer.getInt(end - 12), indexOffset);
+    }
+
+    Optional<Entry> find(int id) {
+        if (indexIds.length == 0 || id < minId || id > maxId)
+            return Optional.empty();
+        int slot = Arrays.binarySearch(indexIds, id);
+        int offset = indexOffsets[slot >= 0 ? slot : -slot - 2];
+        while (offset < dataEnd) {
+            int recordId = buffer.getInt(offset);
+            int storedLength = buffer.getInt(offset + 8);
+            if (recordId == id)
+                return Optional.of(read(offset));
+            if (recordId > id)
+                break;
+            offset += RECORD_HEADER + storedLength;
+        }
+        return Optional.empty();
+    }
+
+    private Entry read(int offset) {
+        int rawLength = buffer.getInt(offset + 4);
+        int storedLength = buffer.getInt(offset + 8);
+        byte[] stored = new byte[storedLength];
+        buffer.get(offset + RECORD_HEADER, stored);
+        byte[] raw = new byte[rawLength];
+        LZ4.safeDecompressor().decompress(stored, 0, storedLength, raw, 0);
+        CRC32 crc = new CRC32();
+        crc.update(raw);
+        if ((int) crc.getValue() != buffer.getInt(offset + 12))
+            throw new IllegalStateException("Corrupt archive record " + buffer.getInt(offset) + " in " + path);
+
+        ByteBuffer fields = ByteBuffer.wrap(raw);
+        return new Entry(string(fields), string(fields));
+    }
+
+    private static String string(ByteBuffer fields) {
+        int length = fields.getInt();
+        if (length < 0)
+            return null;
+        String value = new String(fields.array(), fields.position(), length, StandardCharsets.UTF_8);
+        fields.position(fields.position() + length);
+        return value;
+    }
+
+    /** Appends records in ascending id order; {@link #finish()} publishes the file under its final name. */
+    static final class Writer implements Closeable {
+        private final Path target;
+        private final Path temporary;
+        private final DataOutputStream out;
+        private final LZ4Compressor compressor = LZ4.fastCompressor();
+        private final List<int[]> index = new ArrayList<>();
+        private int size = HEADER;
+        private int count;
+        private int minId;
+        private int lastId = Integer.MIN_VALUE;
+
+        Writer(Path target) throws IOException {
+            this.target = target;
+            this.temporary = target.resolveSibling(target.getFileName() + ".tmp");
+            OutputStream file = Files.newOutputStream(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            this.out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        void append(int id, String content, String contentHtml) throws IOException {
+            if (id <= lastId)
+                throw new IllegalArgumentException("Archive records must be appended in ascending id order");
+            byte[] contentBytes = content == null ? null : content.getBytes(StandardCharsets.UTF_8);
+            byte[] htmlBytes = contentHtml == null ? null : contentHtml.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer raw = ByteBuffer.allocate(8 + length(contentBytes) + length(htmlBytes));
+            put(raw, contentBytes);
+            put(raw, htmlBytes);
+            byte[] stored = compressor.compress(raw.array());
+            CRC32 crc = new CRC32();
+            crc.update(raw.array());
+
+            if (count % INDEX_INTERVAL == 0)
+                index.add(new int[]{id, size});
+            if (count == 0)
+                minId = id;
+            out.writeInt(id);
+            out.writeInt(raw.capacity());
+            out.writeInt(stored.length);
+            out.writeInt((int) crc.getValue());
+            out.write(stored);
+            size += RECORD_HEADER + stored.length;
+            count++;
+            lastId = id;
+        }
+
+        long size() {
+            return size;
+        }
+
+        int count() {
+            return count;
+        }
+
+        Path finish() throws IOException {
+            int indexOffset = size;
+            for (int[] entry : index) {
+                out.writeInt(entry[0]);
+                out.writeInt(entry[1]);
+            }
+            out.writeInt(index.size());
+            out.writeInt(minId);
+            out.writeInt(lastId);
+            out.writeInt(indexOffset);
+            out.writeInt(MAGIC);
+            out.close();
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            return Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+            Files.deleteIfExists(temporary);
+        }
+
+        private static int length(byte[] bytes) {
+            return bytes == null ? 0 : bytes.length;
+        }
+
+        private static void put(ByteBuffer raw, byte[] bytes) {
+            raw.putInt(bytes == null ? -1 : bytes.length);
+            if (bytes != null)
+                raw.put(bytes);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.blogapplication.services.archive;
+
+import com.example.blogapplication.db2.entities.BlogEntity;
+import com.example.blogapplication.exceptions.ArchivedContentUnavailableException;
+import com.example.blogapplication.services.blog.BlogChangeListener;
+import com.example.blogapplication.util.ChangeLog;
+import com.example.blogapplication.util.ContentCodec;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Cold-post archive. Posts not modified for {@code blog.archive.min-age} have their content and rendered HTML
+ * moved out of {@code blogs} into compressed, append-only segment files under {@code blog.archive.root}; the
+ * row stays as a small stub ({@code archived = true}, content NULL) so ids, listings, tags, comments and views
+ * are untouched. Reads of a stub are served from the memory-mapped segments, newest segment first.
+ * <p>
+ * The database decides what is archived: a stub is only written after its segment is on disk, and only if the
+ * row was not modified meanwhile; records whose row was edited or restored are simply never read again.
+ * Editing an archived post brings its content back into the row. {@code blog.archive.restore=all} (or a
+ * comma-separated id list) restores posts at startup.
+ * <p>
+ * With more than one node, {@code blog.archive.root} must be storage every node mounts (the stubs are shared,
+ * so the segments have to be too) and {@code blog.archive.enabled} set on one node only. A node picks up
+ * segments published elsewhere when a stub misses; a stub still found in no segment fails the read
+ * ({@link ArchivedContentUnavailableException}) rather than serving a post with no content. Archiving writes an
+ * {@code ARCHIVED} change_log row per stub so other nodes re-render what they hold.
+ */
+@Slf4j
+@Service
+public class BlogArchive {
+
+    public record ArchivedContent(String content, String contentHtml) {
+    }
+
+    private static final String SELECT_COLD = "SELECT id, content, content_html, COALESCE(updatedAt, created_at) AS modified FROM blogs "
+            + "WHERE id > ? AND archived = FALSE AND content IS NOT NULL AND COALESCE(updatedAt, created_at) < ? ORDER BY id LIMIT ?";
+    private static final String STUB = "UPDATE blogs SET content = NULL, content_html = NULL, archived = TRUE "
+            + "WHERE id = ? AND archived = FALSE AND COALESCE(updatedAt, created_at) = ?";
+    private static final String RESTORE = "UPDATE blogs SET content = ?, content_html = ?, archived = FALSE WHERE id = ? AND archived = TRUE";
+
+    @Autowired
+    private ContentCodec contentCodec;
+    @Autowired
+    @Qualifier("blogChangeLog")
+    private ChangeLog changeLog;
+
+    @Value("${blog.archive.root:data/archive}")
+    private Path root;
+    @Value("${blog.archive.enabled:false}")
+    private boolean enabled;
+    @Value("${blog.archive.min-age:730d}")
+    private Duration minAge;
+    @Value("${blog.archive.segment-size:64MB}")
+    private DataSize segmentSize;
+    @Value("${blog.archive.batch-size:500}")
+    private int batchSize;
+    @Value("${blog.archive.restore:}")
+    private String restoreOnStartup;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    // Newest first, so a post archived more than once is read from its latest segment
+    private final List<ArchiveSegment> segments = new CopyOnWriteArrayList<>();
+    // Guarded by scanLock (not the monitor, which archiving holds for a whole run)
+    private final Object scanLock = new Object();
+    private final Set<String> opened = new HashSet<>();
+    private long nextSegment = 1;
+
+    @Autowired
+    public BlogArchive(@Qualifier("blogDataSource") DataSource blogDataSource,
+                       @Qualifier("blogTransactionManager") PlatformTransactionManager blogTransactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(blogDataSource);
+        this.transactionTemplate = new TransactionTemplate(blogTransactionManager);
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        if (segmentSize.toBytes() > Integer.MAX_VALUE / 2)
+            throw new IllegalStateException("blog.archive.segment-size must be below 1GB");
+        Files.createDirectories(root);
+        FileTime abandoned = FileTime.fromMillis(System.currentTimeMillis() - Duration.ofHours(1).toMillis());
+        try (Stream<Path> files = Files.list(root)) {
+            for (Path file : files.toList()) {
+                // Left by a run that died before publishing the segment; nothing points at it. On a shared root a
+                // recent one may still be being written by another node
+                if (file.getFileName().toString().endsWith(".tmp") && Files.getLastModifiedTime(file).compareTo(abandoned) < 0)
+                    Files.delete(file);
+            }
+        }
+        scan();
+        log.info("Blog archive at {} with {} segments", root, segments.size());
+    }
+
+    // Opens segments published since the last scan, by this node or by another one sharing the root
+    private int scan() throws IOException {
+        synchronized (scanLock) {
+            int added = 0;
+            try (Stream<Path> files = Files.list(root)) {
+                for (Path file : files.sorted().toList()) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(ArchiveSegment.SUFFIX) && opened.add(name)) {
+                        segments.addFirst(ArchiveSegment.open(file));
+                        nextSegment = Math.max(nextSegment, Long.parseLong(name.substring(8, name.length() - ArchiveSegment.SUFFIX.length())) + 1);
+                        added++;
+                    }
+                }
+            }
+            return added;
+        }
+    }
+
+    public Optional<ArchivedContent> find(int blogId) {
+        Optional<ArchivedContent> found = findOpened(blogId);
+        try {
+            if (found.isEmpty() && scan() > 0)
+                found = findOpened(blogId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not scan the archive at " + root, e);
+        }
+        return found;
+    }
+
+    private Optional<ArchivedContent> findOpened(int blogId) {
+        for (ArchiveSegment segment : segments) {
+            Optional<ArchiveSegment.Entry> entry = segment.find(blogId);
+            if (entry.isPresent())
+                return Optional.of(new ArchivedContent(entry.get().content(), entry.get().contentHtml()));
+        }
+        return Optional.empty();
+    }
+
+    /** Puts the archived content back on a stub loaded through JPA; other entities are returned unchanged. */
+    public BlogEntity fill(BlogEntity blog) {
+        if (!blog.isArchived() || blog.getContent() != null)
+            return blog;
+        Optional<ArchivedContent> archived = find(blog.getId());
+        if (archived.isEmpty()) {
+            log.error("Blog {} is marked archived but is in no archive segment under {}", blog.getId(), root);
+            throw new ArchivedContentUnavailableException(blog.getId());
+        }
+        blog.setContent(archived.get().content());
+        blog.setContentHtml(archived.get().contentHtml());
+        return blog;
+    }
+
+    @Scheduled(fixedDelayString = "${blog.archive.interval:1d}", initialDelayString = "${blog.archive.interval:1d}")
+    public void scheduledRun() {
+        if (enabled)
+            archiveColdPosts();
+    }
+
+    /** Archives every post not modified for min-age; returns how many rows became stubs. */
+    public synchronized int archiveColdPosts() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(minAge));
+        try {
+            scan();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not scan the archive at " + root, e);
+        }
+        int archived = 0;
+        int after = 0;
+        ArchiveSegment.Writer writer = null;
+        List<Object[]> stubs = new ArrayList<>();
+        try {
+            while (true) {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(SELECT_COLD, after, cutoff, batchSize);
+                if (rows.isEmpty())
+                    break;
+                for (Map<String, Object> row : rows) {
+                    after = ((Number) row.get("id")).intValue();
+                    if (writer == null)
+                        writer = new ArchiveSegment.Writer(nextSegmentFile());
+                    writer.append(after, contentCodec.decode((String) row.get("content")), (String) row.get("content_html"));
+                    stubs.add(new Object[]{after, row.get("modified")});
+                    if (writer.size() >= segmentSize.toBytes()) {
+                        archived += publish(writer, stubs);
+                        writer = null;
+                        stubs = new ArrayList<>();
+                    }
+                }
+            }
+            if (writer != null)
+                archived += publish(writer, stubs);
+        } catch (IOException e) {
+            closeQuietly(writer);
+            throw new UncheckedIOException("Archiving cold posts failed", e);
+        }
+        log.info("Archived {} blogs not modified since {}", archived, cutoff);
+        return archived;
+    }
+
+    private Path nextSegmentFile() {
+        synchronized (scanLock) {
+            return root.resolve(String.format("segment-%08d%s", nextSegment++, ArchiveSegment.SUFFIX));
+        }
+    }
+
+    private int publish(ArchiveSegment.Writer writer, List<Object[]> stubs) throws IOException {
+        Path file = writer.finish();
+        synchronized (scanLock) {
+            if (opened.add(file.getFileName().toString()))
+                segments.addFirst(ArchiveSegment.open(file));
+        }
+        int[] updated = transactionTemplate.execute(status -> {
+            int[] counts = jdbcTemplate.batchUpdate(STUB, stubs);
+            // Batched statements may report SUCCESS_NO_INFO (-2) instead of a row count
+            for (int i = 0; i < counts.length; i++)
+                if (counts[i] != 0)
+                    changeLog.record(BlogChangeListener.ENTITY, stubs.get(i)[0], ChangeLog.Op.ARCHIVED);
+            return counts;
+        });
+        int stubbed = (int) Arrays.stream(updated).filter(count -> count != 0).count();
+        log.debug("Published {} with {} records, {} now stubs", file.getFileName(), writer.count(), stubbed);
+        return stubbed;
+    }
+
+    /** Writes archived content back into the given stubs; returns how many rows were restored. */
+    public synchronized int restore(Collection<Integer> blogIds) {
+        List<Object[]> restores = new ArrayList<>();
+        for (int id : blogIds)
+            find(id).ifPresent(content -> restores.add(new Object[]{contentCodec.encode(content.content()), content.contentHtml(), id}));
+        if (restores.isEmpty())
+            return 0;
+        int[] updated = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(RESTORE, restores));
+        int restored = (int) Arrays.stream(updated).filter(count -> count != 0).count();
+        log.info("Restored {} archived blogs", restored);
+        return restored;
+    }
+
+    public int restoreAll() {
+        return restore(jdbcTemplate.queryForList("SELECT id FROM blogs WHERE archived = TRUE", Integer.class));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreRequested() {
+        if (restoreOnStartup.isBlank())
+            return;
+        if (restoreOnStartup.trim().equals("all"))
+            restoreAll();
+        else
+            restore(Arrays.stream(restoreOnStartup.split(",")).map(String::trim).map(Integer::valueOf).toList());
+    }
+
+    private static void closeQuietly(ArchiveSegment.Writer writer) {
+        if (writer == null)
+            return;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("Could not remove unfinished archive segment", e);
+        }
+    }
+}
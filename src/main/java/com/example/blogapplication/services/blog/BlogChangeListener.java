@@ -0,0 +1,95 @@
+package com.example.blogapplication.services.blog;
+
+import com.example.blogapplication.db2.entities.BlogEntity;
+import com.example.blogapplication.db2.repository.BlogRepository;
+import com.example.blogapplication.util.ChangeLog;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Applies blog writes made on other nodes to this node's in-memory state (tag index, feeds, live feed), the way
+ * {@link BlogService} applies its own. Posts are re-read rather than trusted from the log, so a late or
+ * repeated change converges on the row as it is now.
+ */
+@Slf4j
+@Component
+public class BlogChangeListener implements ChangeLog.Listener {
+
+    public static final String ENTITY = "blog";
+
+    @Autowired
+    private BlogRepository blogRepository;
+    @Autowired
+    private TagIndex tagIndex;
+    @Autowired
+    private FeedService feedService;
+    @Autowired
+    private LiveFeed liveFeed;
+    @Autowired
+    @Qualifier("blogChangeLog")
+    private ChangeLog changeLog;
+
+    private final TransactionTemplate readOnly;
+
+    @Autowired
+    public BlogChangeListener(@Qualifier("blogTransactionManager") PlatformTransactionManager blogTransactionManager) {
+        this.readOnly = new TransactionTemplate(blogTransactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    @PostConstruct
+    void register() {
+        changeLog.addListener(this);
+    }
+
+    @Override
+    public void changed(List<ChangeLog.Change> changes) {
+        // Last change per post wins within a batch
+        Map<Integer, ChangeLog.Op> latest = new LinkedHashMap<>();
+        for (ChangeLog.Change change : changes)
+            if (ENTITY.equals(change.entity()))
+                latest.put(Integer.valueOf(change.key()), change.op());
+
+        latest.forEach((id, op) -> {
+            Optional<BlogEntity> blog = readOnly.execute(status -> blogRepository.findById(id).map(found -> {
+                found.getTags().size();
+                return found;
+            }));
+            if (blog.isEmpty()) {
+                tagIndex.remove(id);
+                feedService.removed(id);
+                liveFeed.deleted(id);
+                return;
+            }
+            BlogEntity found = blog.get();
+            if (op == ChangeLog.Op.ARCHIVED) {
+                // Feeds hold rendered content; the live feed and tags are unaffected
+                feedService.changed(id, found.getUpdatedAt() != null ? found.getUpdatedAt() : found.getCreatedAt());
+                return;
+            }
+            tagIndex.index(id, List.copyOf(found.getTags()));
+            feedService.changed(id, found.getUpdatedAt() != null ? found.getUpdatedAt() : found.getCreatedAt());
+            if (op == ChangeLog.Op.CREATED)
+                liveFeed.created(found);
+            else
+                liveFeed.updated(found);
+        });
+        log.debug("Applied {} remote blog changes", latest.size());
+    }
+
+    @Override
+    public void invalidateAll() {
+        tagIndex.rebuild();
+        feedService.load();
+    }
+}
@@ -3,58 +3,103 @@ package com.example.blogapplication.services.blog;
 
 import com.example.blogapplication.db2.entities.BlogEntity;
 import com.example.blogapplication.db2.repository.BlogRepository;
+import com.example.blogapplication.services.archive.BlogArchive;
+import com.example.blogapplication.util.ChangeLog;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.time.LocalDateTime;
-import java.util.Objects;
+import java.util.List;
 import java.util.Optional;
 
+@Slf4j
 @Service
 public class BlogService {
     @Autowired
     BlogRepository blogRepository;
+    @Autowired
+    TagIndex tagIndex;
+    @Autowired
+    MarkdownRenderer markdownRenderer;
+    @Autowired
+    FeedService feedService;
+    @Autowired
+    LiveFeed liveFeed;
+    @Autowired
+    RevisionService revisionService;
+    @Autowired
+    BlogArchive blogArchive;
+    @Autowired
+    @Qualifier("blogChangeLog")
+    ChangeLog changeLog;
 
-    public boolean addBlog(BlogEntity blog){
-        try {
-            BlogEntity blogEntity = Objects.requireNonNull(blogRepository.save(blog));
-        return true;
-        }
-        catch (Exception e){
-            System.out.println(e.getMessage());
-            return false;
-        }
+    // The post, its first revision and its change_log row commit together; the in-memory views follow after commit
+    @Transactional(transactionManager = "blogTransactionManager")
+    public BlogEntity addBlog(BlogEntity blog){
+        blog.setContentHtml(markdownRenderer.render(blog.getContent()));
+        BlogEntity blogEntity = blogRepository.save(blog);
+        revisionService.created(blogEntity);
+        changeLog.record(BlogChangeListener.ENTITY, blogEntity.getId(), ChangeLog.Op.CREATED);
+        tagIndex.index(blogEntity.getId(), List.copyOf(blogEntity.getTags()));
+        feedService.changed(blogEntity.getId(), blogEntity.getCreatedAt());
+        liveFeed.created(blogEntity);
+        return blogEntity;
     }
 
+    // Archived posts come back with their content read from the archive
+    @Transactional(transactionManager = "blogTransactionManager", readOnly = true)
     public Optional<BlogEntity> findById(Integer id){
-        return blogRepository.findById(id);
+        return blogRepository.findById(id).map(blogArchive::fill);
     }
 
+    @Transactional(transactionManager = "blogTransactionManager")
     public boolean deleteBlog(@RequestParam  Integer id) {
         Optional<BlogEntity> blogEntity = findById(id);
       if (!blogEntity.isEmpty()){
           blogRepository.deleteById(id);
+          changeLog.record(BlogChangeListener.ENTITY, id, ChangeLog.Op.DELETED);
+          tagIndex.remove(id);
+          feedService.removed(id);
+          liveFeed.deleted(id);
           return true;
       }
         return false;
     }
 
+    @Transactional(transactionManager = "blogTransactionManager")
     public boolean updateBlog(Integer id, BlogEntity blog) {
-        Optional<BlogEntity> blogEntity = findById(id);
+        // Row-locked so a concurrent edit of the same post waits, then numbers and diffs its revision after this one
+        Optional<BlogEntity> blogEntity = blogRepository.findForUpdate(id).map(blogArchive::fill);
         if(blogEntity.isPresent()){
-            BlogEntity updatedBlog = getUpdatedBlog(blogEntity.get(), blog);
+            BlogEntity old = blogEntity.get();
+            String previousTitle = old.getTitle(), previousAuthor = old.getAuthor(), previousContent = old.getContent();
+            LocalDateTime previousModifiedAt = old.getUpdatedAt() != null ? old.getUpdatedAt() : old.getCreatedAt();
+            BlogEntity updatedBlog = getUpdatedBlog(old, blog);
             blogRepository.save(updatedBlog);
+            revisionService.updated(updatedBlog, previousTitle, previousAuthor, previousContent, previousModifiedAt);
+            changeLog.record(BlogChangeListener.ENTITY, id, ChangeLog.Op.UPDATED);
+            tagIndex.index(id, List.copyOf(updatedBlog.getTags()));
+            feedService.changed(id, updatedBlog.getUpdatedAt());
+            liveFeed.updated(updatedBlog);
             return true;
         }
         return false;
     }
 
-    private BlogEntity getUpdatedBlog(BlogEntity oldblog, BlogEntity newBlog) {
+    BlogEntity getUpdatedBlog(BlogEntity oldblog, BlogEntity newBlog) {
         oldblog.setContent(newBlog.getContent());
+        oldblog.setContentHtml(markdownRenderer.render(newBlog.getContent()));
         oldblog.setAuthor(newBlog.getAuthor());
         oldblog.setTitle(newBlog.getTitle());
+        oldblog.setImage(newBlog.getImage());
+        oldblog.getTags().clear();
+        oldblog.getTags().addAll(newBlog.getTags());
         oldblog.setUpdatedAt(LocalDateTime.now());
+        oldblog.setArchived(false);
         return oldblog;
     }
 }
@@ -0,0 +1,107 @@
+package com.example.blogapplication.services.blog;
+
+import com.example.blogapplication.db2.entities.CommentEntity;
+import com.example.blogapplication.db2.repository.BlogRepository;
+import com.example.blogapplication.db2.repository.CommentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Threaded comments stored with a materialized path (see {@link CommentEntity#getPath()}): a thread or any
+ * subtree is a single ordered range scan, and paging through it is keyset pagination on the path.
+ */
+@Service
+public class CommentService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_DEPTH = 16;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    public enum AddResult { ADDED, BLOG_NOT_FOUND, PARENT_NOT_FOUND, TOO_DEEP }
+
+    /**
+     * Persists the comment under {@code blogId} (and {@code parentId}, if given). The id is only known after the
+     * insert, so the path is completed afterwards and written by the same transaction's flush.
+     */
+    @Transactional(transactionManager = "blogTransactionManager")
+    public AddResult addComment(int blogId, Integer parentId, CommentEntity comment) {
+        if (!blogRepository.existsById(blogId))
+            return AddResult.BLOG_NOT_FOUND;
+
+        String parentPath = "";
+        int depth = 0;
+        if (parentId != null) {
+            Optional<CommentEntity> parent = commentRepository.findById(parentId);
+            if (parent.isEmpty() || parent.get().getBlogId() != blogId)
+                return AddResult.PARENT_NOT_FOUND;
+            if (parent.get().getDepth() + 1 >= MAX_DEPTH)
+                return AddResult.TOO_DEEP;
+            parentPath = parent.get().getPath();
+            depth = parent.get().getDepth() + 1;
+        }
+
+        comment.setId(0);
+        comment.setBlogId(blogId);
+        comment.setParentId(parentId);
+        comment.setDepth(depth);
+        comment.setReplyCount(0);
+        comment.setPath(parentPath);
+        CommentEntity saved = commentRepository.saveAndFlush(comment);
+        saved.setPath(parentPath + segment(saved.getId()));
+
+        if (parentId != null)
+            commentRepository.incrementReplyCount(parentId);
+        return AddResult.ADDED;
+    }
+
+    /** Top-level comments of a blog, oldest first, after the given comment id. */
+    @Transactional(transactionManager = "blogTransactionManager", readOnly = true)
+    public List<CommentEntity> topLevel(int blogId, int after, int limit) {
+        return commentRepository.findTopLevel(blogId, after, Limit.of(pageSize(limit)));
+    }
+
+    /**
+     * One page of the subtree rooted at {@code commentId} (the comment itself first, then its replies depth-first).
+     * {@code afterPath} is the path of the last comment of the previous page, or null for the first page.
+     */
+    @Transactional(transactionManager = "blogTransactionManager", readOnly = true)
+    public Optional<List<CommentEntity>> subtree(int blogId, int commentId, String afterPath, int limit) {
+        Optional<CommentEntity> root = commentRepository.findById(commentId);
+        if (root.isEmpty() || root.get().getBlogId() != blogId)
+            return Optional.empty();
+
+        String prefix = root.get().getPath();
+        // '0' is the character right after '/', so [prefix, upper) is exactly the subtree
+        String upper = prefix.substring(0, prefix.length() - 1) + '0';
+        String after = afterPath != null && afterPath.startsWith(prefix) ? afterPath : prefix.substring(0, prefix.length() - 1);
+        return Optional.of(commentRepository.findPathRange(blogId, after, upper, Limit.of(pageSize(limit))));
+    }
+
+    /** A page of the whole thread of a blog in display order, paged by path. */
+    @Transactional(transactionManager = "blogTransactionManager", readOnly = true)
+    public List<CommentEntity> thread(int blogId, String afterPath, int limit) {
+        return commentRepository.findPathRange(blogId, afterPath == null ? "" : afterPath, "~", Limit.of(pageSize(limit)));
+    }
+
+    static String segment(int id) {
+        String digits = Integer.toString(id);
+        return "0".repeat(Math.max(0, CommentEntity.PATH_SEGMENT_WIDTH - digits.length())) + digits + '/';
+    }
+
+    private static int pageSize(int limit) {
+        if (limit <= 0)
+            return DEFAULT_PAGE_SIZE;
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.blogapplication.services.blog;
+
+import com.example.blogapplication.util.ContentCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Rewrites existing {@code blogs.content} values into the form {@link ContentCodec} currently produces:
+ * compresses rows written before compression was enabled, or decompresses them after it is switched off.
+ * Works in id-ordered batches, each a short transaction that locks only its own rows, with a pause in between
+ * so normal traffic keeps the database. Safe to rerun; rows already in the current form are not written.
+ */
+@Slf4j
+@Component
+public class ContentRecompressor {
+
+    public record Result(int scanned, int rewritten, long charsBefore, long charsAfter) {
+    }
+
+    private static final String SELECT = "SELECT id, content FROM blogs WHERE id > ? ORDER BY id LIMIT ? FOR UPDATE";
+    private static final String UPDATE = "UPDATE blogs SET content = ? WHERE id = ?";
+
+    @Autowired
+    private ContentCodec contentCodec;
+
+    @Value("${blog.content-compression.recompress-on-startup:false}")
+    private boolean recompressOnStartup;
+    @Value("${blog.content-compression.batch-size:200}")
+    private int batchSize;
+    @Value("${blog.content-compression.batch-pause:100ms}")
+    private Duration batchPause;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public ContentRecompressor(@Qualifier("blogDataSource") DataSource blogDataSource,
+                               @Qualifier("blogTransactionManager") PlatformTransactionManager blogTransactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(blogDataSource);
+        this.transactionTemplate = new TransactionTemplate(blogTransactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (recompressOnStartup)
+            Thread.ofPlatform().name("content-recompressor").daemon().start(this::recompressAll);
+    }
+
+    public synchronized Result recompressAll() {
+        Batch total = new Batch(0, 0, 0, 0, 0);
+        try {
+            while (true) {
+                int after = total.lastId();
+                Batch batch = Objects.requireNonNull(transactionTemplate.execute(status -> recompress(after)));
+                if (batch.scanned() == 0)
+                    break;
+                total = new Batch(batch.lastId(), total.scanned() + batch.scanned(), total.rewritten() + batch.rewritten(),
+                        total.charsBefore() + batch.charsBefore(), total.charsAfter() + batch.charsAfter());
+                Thread.sleep(batchPause.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Recompressed blog content: {} rows scanned, {} rewritten, {} -> {} chars",
+                total.scanned(), total.rewritten(), total.charsBefore(), total.charsAfter());
+        return new Result(total.scanned(), total.rewritten(), total.charsBefore(), total.charsAfter());
+    }
+
+    private record Batch(int lastId, int scanned, int rewritten, long charsBefore, long charsAfter) {
+    }
+
+    private Batch recompress(int after) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(SELECT, after, batchSize);
+        List<Object[]> updates = new ArrayList<>();
+        int lastId = after;
+        long before = 0;
+        long now = 0;
+        for (Map<String, Object> row : rows) {
+            lastId = ((Number) row.get("id")).intValue();
+            String stored = (String) row.get("content");
+            String wanted = contentCodec.encode(contentCodec.decode(stored));
+            before += stored == null ? 0 : stored.length();
+            now += wanted == null ? 0 : wanted.length();
+            if (!Objects.equals(stored, wanted))
+                updates.add(new Object[]{wanted, lastId});
+        }
+        if (!updates.isEmpty())
+            jdbcTemplate.batchUpdate(UPDATE, updates);
+        return new Batch(lastId, rows.size(), updates.size(), before, now);
+    }
+}
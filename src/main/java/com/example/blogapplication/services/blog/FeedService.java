@@ -0,0 +1,332 @@
+package com.example.blogapplication.services.blog;
+
+import com.example.blogapplication.db2.entities.BlogEntity;
+import com.example.blogapplication.db2.repository.BlogRepository;
+import com.example.blogapplication.services.archive.BlogArchive;
+import com.example.blogapplication.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * RSS, Atom and sitemap documents, kept rendered in memory so a request is a copy of bytes.
+ * <p>
+ * Sitemap shards are ranges of blog ids ({@code blog.feeds.sitemap-shard-size}, at most the protocol's 50,000
+ * URLs), so a change to one blog dirties exactly one shard; only dirty shards, the index and (when the change can
+ * reach them) the feeds are re-rendered, on the next read after the change commits. Every document carries a
+ * strong ETag derived from its bytes, which stays stable across restarts while the content does.
+ * <p>
+ * Sitemaps are built from the in-memory id map under the monitor. The feeds need a query, so they are rendered
+ * under their own lock and published as one immutable {@link Feeds}; while one thread re-renders them, other
+ * readers get the previous version instead of waiting on the database.
+ */
+@Slf4j
+@Service
+public class FeedService {
+
+    public static final int MAX_SITEMAP_URLS = 50_000;
+
+    public record Document(byte[] body, String etag) {
+    }
+
+    // Lowest id in the feeds (changes below it cannot affect them) and the change generation they were rendered at
+    private record Feeds(Document rss, Document atom, int floor, long generation) {
+    }
+
+    private static final XMLOutputFactory XML = XMLOutputFactory.newFactory();
+    private static final String SITEMAP_NS = "http://www.sitemaps.org/schemas/sitemap/0.9";
+    private static final String ATOM_NS = "http://www.w3.org/2005/Atom";
+
+    @Autowired
+    private BlogRepository blogRepository;
+    @Autowired
+    private BlogArchive blogArchive;
+    @Autowired
+    private MarkdownRenderer markdownRenderer;
+
+    @Value("${blog.feeds.base-url:http://localhost:5000}")
+    private String baseUrl;
+    @Value("${blog.feeds.title:Blog}")
+    private String title;
+    @Value("${blog.feeds.size:20}")
+    private int feedSize;
+    @Value("${blog.feeds.sitemap-shard-size:" + MAX_SITEMAP_URLS + "}")
+    private int shardSize;
+
+    // Sitemap state, guarded by the monitor; the rendered documents are immutable once published
+    private final NavigableMap<Integer, LocalDateTime> lastModified = new TreeMap<>();
+    private final Map<Integer, Document> shards = new HashMap<>();
+    private final Set<Integer> dirtyShards = new HashSet<>();
+    private Document index;
+
+    private final ReentrantLock feedRender = new ReentrantLock();
+    private final AtomicLong feedGeneration = new AtomicLong();
+    private volatile Feeds feeds;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        if (shardSize < 1 || shardSize > MAX_SITEMAP_URLS)
+            throw new IllegalStateException("blog.feeds.sitemap-shard-size must be between 1 and " + MAX_SITEMAP_URLS);
+        lastModified.clear();
+        shards.clear();
+        dirtyShards.clear();
+        for (Object[] row : blogRepository.findLastModified()) {
+            int id = (Integer) row[0];
+            lastModified.put(id, (LocalDateTime) row[1]);
+            dirtyShards.add(id / shardSize);
+        }
+        index = null;
+        feedGeneration.incrementAndGet();
+        log.info("Feeds tracking {} blogs in {} sitemap shards", lastModified.size(), dirtyShards.size());
+    }
+
+    public void changed(int blogId, LocalDateTime modifiedAt) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                lastModified.put(blogId, modifiedAt);
+                markDirty(blogId);
+            }
+        });
+    }
+
+    public void removed(int blogId) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                if (lastModified.remove(blogId) != null)
+                    markDirty(blogId);
+            }
+        });
+    }
+
+    public synchronized Document sitemapIndex() {
+        refreshSitemaps();
+        return index;
+    }
+
+    /** Empty when the shard holds no blogs. */
+    public synchronized Optional<Document> sitemapShard(int shard) {
+        refreshSitemaps();
+        return Optional.ofNullable(shards.get(shard));
+    }
+
+    public Document rss() {
+        return feeds().rss();
+    }
+
+    public Document atom() {
+        return feeds().atom();
+    }
+
+    private void markDirty(int blogId) {
+        dirtyShards.add(blogId / shardSize);
+        Feeds current = feeds;
+        if (current == null || blogId >= current.floor())
+            feedGeneration.incrementAndGet();
+    }
+
+    private void refreshSitemaps() {
+        if (!dirtyShards.isEmpty() || index == null) {
+            for (int shard : dirtyShards) {
+                NavigableMap<Integer, LocalDateTime> range = shardRange(shard);
+                if (range.isEmpty())
+                    shards.remove(shard);
+                else
+                    shards.put(shard, render(w -> writeUrlSet(w, range)));
+            }
+            log.debug("Re-rendered sitemap shards {}", dirtyShards);
+            dirtyShards.clear();
+            index = render(this::writeIndex);
+        }
+    }
+
+    private Feeds feeds() {
+        Feeds current = feeds;
+        if (current != null && current.generation() == feedGeneration.get())
+            return current;
+        // Someone is already re-rendering: serve what is published rather than queue behind the query
+        if (current != null && !feedRender.tryLock())
+            return current;
+        if (current == null)
+            feedRender.lock();
+        try {
+            current = feeds;
+            // Read before the query, so a change committed while rendering leaves the result stale
+            long generation = feedGeneration.get();
+            if (current != null && current.generation() == generation)
+                return current;
+            List<BlogEntity> latest = blogRepository.findByOrderByIdDesc(Limit.of(feedSize));
+            latest.forEach(blogArchive::fill);
+            current = new Feeds(render(w -> writeRss(w, latest)), render(w -> writeAtom(w, latest)),
+                    latest.size() < feedSize ? 0 : latest.getLast().getId(), generation);
+            feeds = current;
+            return current;
+        } finally {
+            feedRender.unlock();
+        }
+    }
+
+    private NavigableMap<Integer, LocalDateTime> shardRange(int shard) {
+        return lastModified.subMap(shard * shardSize, true, (shard + 1) * shardSize, false);
+    }
+
+    private void writeUrlSet(XMLStreamWriter w, NavigableMap<Integer, LocalDateTime> range) throws XMLStreamException {
+        w.writeStartElement("urlset");
+        w.writeDefaultNamespace(SITEMAP_NS);
+        for (Map.Entry<Integer, LocalDateTime> entry : range.entrySet()) {
+            w.writeStartElement("url");
+            element(w, "loc", postUrl(entry.getKey()));
+            element(w, "lastmod", w3c(entry.getValue()));
+            w.writeEndElement();
+        }
+        w.writeEndElement();
+    }
+
+    private void writeIndex(XMLStreamWriter w) throws XMLStreamException {
+        w.writeStartElement("sitemapindex");
+        w.writeDefaultNamespace(SITEMAP_NS);
+        for (int shard : new TreeSet<>(shards.keySet())) {
+            LocalDateTime newest = shardRange(shard).values().stream().max(LocalDateTime::compareTo).orElseThrow();
+            w.writeStartElement("sitemap");
+            element(w, "loc", baseUrl + "/sitemap-" + shard + ".xml");
+            element(w, "lastmod", w3c(newest));
+            w.writeEndElement();
+        }
+        w.writeEndElement();
+    }
+
+    private void writeRss(XMLStreamWriter w, List<BlogEntity> latest) throws XMLStreamException {
+        w.writeStartElement("rss");
+        w.writeAttribute("version", "2.0");
+        w.writeStartElement("channel");
+        element(w, "title", title);
+        element(w, "link", baseUrl + "/");
+        element(w, "description", "Latest posts on " + title);
+        if (!latest.isEmpty())
+            element(w, "lastBuildDate", DateTimeFormatter.RFC_1123_DATE_TIME.format(zoned(modified(latest.getFirst()))));
+        for (BlogEntity blog : latest) {
+            w.writeStartElement("item");
+            element(w, "title", blog.getTitle());
+            element(w, "link", postUrl(blog.getId()));
+            w.writeStartElement("guid");
+            w.writeAttribute("isPermaLink", "true");
+            w.writeCharacters(postUrl(blog.getId()));
+            w.writeEndElement();
+            element(w, "pubDate", DateTimeFormatter.RFC_1123_DATE_TIME.format(zoned(blog.getCreatedAt())));
+            element(w, "description", html(blog));
+            w.writeEndElement();
+        }
+        w.writeEndElement();
+        w.writeEndElement();
+    }
+
+    private void writeAtom(XMLStreamWriter w, List<BlogEntity> latest) throws XMLStreamException {
+        w.writeStartElement("feed");
+        w.writeDefaultNamespace(ATOM_NS);
+        element(w, "title", title);
+        element(w, "id", baseUrl + "/");
+        w.writeEmptyElement("link");
+        w.writeAttribute("rel", "self");
+        w.writeAttribute("href", baseUrl + "/atom.xml");
+        // Atom requires <updated>; an empty feed uses the epoch so its bytes (and ETag) stay stable
+        element(w, "updated", latest.isEmpty() ? "1970-01-01T00:00:00Z" : w3c(modified(latest.getFirst())));
+        for (BlogEntity blog : latest) {
+            w.writeStartElement("entry");
+            element(w, "title", blog.getTitle());
+            element(w, "id", postUrl(blog.getId()));
+            w.writeEmptyElement("link");
+            w.writeAttribute("href", postUrl(blog.getId()));
+            element(w, "published", w3c(blog.getCreatedAt()));
+            element(w, "updated", w3c(modified(blog)));
+            w.writeStartElement("author");
+            element(w, "name", blog.getAuthor());
+            w.writeEndElement();
+            w.writeStartElement("content");
+            w.writeAttribute("type", "html");
+            w.writeCharacters(html(blog));
+            w.writeEndElement();
+            w.writeEndElement();
+        }
+        w.writeEndElement();
+    }
+
+    private String postUrl(int id) {
+        return baseUrl + "/posts/" + id;
+    }
+
+    // Rows written before content_html existed are rendered here (through the renderer's cache) and backfilled by
+    // the post API; the raw content is never published as HTML
+    private String html(BlogEntity blog) {
+        return blog.getContentHtml() != null ? blog.getContentHtml() : markdownRenderer.render(blog.getContent());
+    }
+
+    private static LocalDateTime modified(BlogEntity blog) {
+        return blog.getUpdatedAt() != null ? blog.getUpdatedAt() : blog.getCreatedAt();
+    }
+
+    private static ZonedDateTime zoned(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.SECONDS).atZone(ZoneId.systemDefault());
+    }
+
+    private static String w3c(LocalDateTime time) {
+        return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(zoned(time));
+    }
+
+    private static void element(XMLStreamWriter w, String name, String text) throws XMLStreamException {
+        w.writeStartElement(name);
+        w.writeCharacters(text == null ? "" : text);
+        w.writeEndElement();
+    }
+
+    private interface Body {
+        void write(XMLStreamWriter writer) throws XMLStreamException;
+    }
+
+    private static Document render(Body body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        try {
+            XMLStreamWriter writer = XML.createXMLStreamWriter(out, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            body.write(writer);
+            writer.writeEndDocument();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Could not render feed", e);
+        }
+        byte[] bytes = out.toByteArray();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return new Document(bytes, "\"" + HexFormat.of().formatHex(Arrays.copyOf(digest, 12)) + "\"");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
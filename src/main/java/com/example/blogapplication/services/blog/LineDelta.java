@@ -0,0 +1,58 @@
+package com.example.blogapplication.services.blog;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.patch.AbstractDelta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact line-level deltas between two texts. Each change is a header line {@code position,deleted,inserted}
+ * (positions in the source's lines) followed by the inserted lines, e.g. changing line 3 of a post is
+ * {@code "2,1,1\nthe new line\n"}. Lines are split on '\n' only, so any '\r' stays part of its line.
+ */
+final class LineDelta {
+
+    private LineDelta() {
+    }
+
+    static List<String> lines(String text) {
+        return Arrays.asList(text.split("\n", -1));
+    }
+
+    static String encode(String source, String target) {
+        StringBuilder delta = new StringBuilder();
+        for (AbstractDelta<String> change : DiffUtils.diff(lines(source), lines(target)).getDeltas()) {
+            List<String> inserted = change.getTarget().getLines();
+            delta.append(change.getSource().getPosition()).append(',')
+                    .append(change.getSource().size()).append(',')
+                    .append(inserted.size()).append('\n');
+            for (String line : inserted)
+                delta.append(line).append('\n');
+        }
+        return delta.toString();
+    }
+
+    static String apply(String source, String delta) {
+        List<String> from = lines(source);
+        List<String> to = new ArrayList<>(from.size() + 16);
+        int copied = 0;
+        int at = 0;
+        while (at < delta.length()) {
+            int end = delta.indexOf('\n', at);
+            String[] header = delta.substring(at, end).split(",");
+            at = end + 1;
+            int position = Integer.parseInt(header[0]);
+            to.addAll(from.subList(copied, position));
+            copied = position + Integer.parseInt(header[1]);
+            for (int i = Integer.parseInt(header[2]); i > 0; i--) {
+                end = delta.indexOf('\n', at);
+                to.add(delta.substring(at, end));
+                at = end + 1;
+            }
+        }
+        to.addAll(from.subList(copied, from.size()));
+        return String.join("\n", to);
+    }
+}
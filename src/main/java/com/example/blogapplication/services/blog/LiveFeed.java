@@ -0,0 +1,323 @@
+package com.example.blogapplication.services.blog;
+
+import com.example.blogapplication.db2.entities.BlogEntity;
+import com.example.blogapplication.util.AfterCommit;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Server-sent events for post changes. Each event is serialised once into a complete SSE frame and stored in a
+ * ring of the last {@code blog.live.buffer-size} frames; every connection is just a cursor into that ring, so
+ * fan-out copies the same bytes to each socket.
+ * <p>
+ * Connections use servlet non-blocking output: one fan-out thread writes to every client whose socket is ready
+ * and leaves the rest to their {@link WriteListener}, so a slow client never holds up the others or a thread.
+ * A client that falls a whole ring behind is evicted (it reconnects with {@code Last-Event-ID} and is told to
+ * resync). Reconnects replay from the ring.
+ */
+@Slf4j
+@Service
+public class LiveFeed {
+
+    public record PostSummary(int id, String title, String author, LocalDateTime createdAt, LocalDateTime updatedAt,
+                              Set<String> tags, String image) {
+        static PostSummary of(BlogEntity blog) {
+            return new PostSummary(blog.getId(), blog.getTitle(), blog.getAuthor(), blog.getCreatedAt(),
+                    blog.getUpdatedAt(), Set.copyOf(blog.getTags()), blog.getImage());
+        }
+    }
+
+    private record Frame(long id, byte[] bytes) {
+    }
+
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RESYNC = "event: resync\ndata: {}\n\n".getBytes(StandardCharsets.US_ASCII);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${blog.live.buffer-size:1024}")
+    private int bufferSize;
+    @Value("${blog.live.max-connections:10000}")
+    private int maxConnections;
+    @Value("${blog.live.retry:3s}")
+    private Duration retry;
+    // Streams are closed after this long; clients reconnect with Last-Event-ID without losing events
+    @Value("${blog.live.reconnect-after:30m}")
+    private Duration reconnectAfter;
+
+    private AtomicReferenceArray<Frame> ring;
+    // Ids start at the boot time in microseconds, so an id from before a restart is always older than the ring
+    private final long firstId = System.currentTimeMillis() * 1000;
+    // Written only by publish (under the monitor), after the frame is in its slot
+    private volatile long nextId = firstId;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService fanOut = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("live-feed").daemon().factory());
+    private final AtomicBoolean fanOutScheduled = new AtomicBoolean();
+    private Counter evictions;
+
+    @PostConstruct
+    void init() {
+        ring = new AtomicReferenceArray<>(bufferSize);
+        Gauge.builder("blog.live.connections", subscribers, Set::size).register(meterRegistry);
+        evictions = Counter.builder("blog.live.evictions").description("SSE clients dropped for falling a whole buffer behind").register(meterRegistry);
+    }
+
+    public void created(BlogEntity blog) {
+        publish("post-created", PostSummary.of(blog));
+    }
+
+    public void updated(BlogEntity blog) {
+        publish("post-updated", PostSummary.of(blog));
+    }
+
+    public void deleted(int blogId) {
+        publish("post-deleted", Map.of("id", blogId));
+    }
+
+    private void publish(String event, Object payload) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialise {} event", event, e);
+            return;
+        }
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                long id = nextId;
+                byte[] head = ("id: " + id + "\nevent: " + event + "\ndata: ").getBytes(StandardCharsets.UTF_8);
+                byte[] frame = new byte[head.length + json.length + 2];
+                System.arraycopy(head, 0, frame, 0, head.length);
+                System.arraycopy(json, 0, frame, head.length, json.length);
+                frame[frame.length - 2] = '\n';
+                frame[frame.length - 1] = '\n';
+                ring.set(slot(id), new Frame(id, frame));
+                nextId = id + 1;
+            }
+            scheduleFanOut();
+        });
+    }
+
+    /**
+     * Takes over the request as an event stream. Returns false, leaving the request untouched, when the
+     * connection limit is reached.
+     */
+    public boolean subscribe(HttpServletRequest request, HttpServletResponse response, String lastEventId) throws IOException {
+        if (subscribers.size() >= maxConnections)
+            return false;
+        response.setContentType("text/event-stream;charset=UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("X-Accel-Buffering", "no");
+
+        long next = nextId;
+        long oldest = Math.max(firstId, next - bufferSize);
+        long cursor = next;
+        boolean resync = false;
+        if (lastEventId != null) {
+            long resumeFrom = parse(lastEventId) + 1;
+            if (resumeFrom >= oldest && resumeFrom <= next)
+                cursor = resumeFrom;
+            else
+                resync = true;
+        }
+        byte[] preamble = ("retry: " + retry.toMillis() + "\n\n").getBytes(StandardCharsets.US_ASCII);
+
+        AsyncContext async = request.startAsync(request, response);
+        async.setTimeout(reconnectAfter.toMillis());
+        Subscriber subscriber = new Subscriber(async, response.getOutputStream(), cursor, preamble, resync);
+        async.addListener(subscriber);
+        subscribers.add(subscriber);
+        // The container calls onWritePossible once the request thread returns, which writes the preamble and any replay
+        response.getOutputStream().setWriteListener(subscriber);
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${blog.live.heartbeat:15s}")
+    public void heartbeat() {
+        fanOut.execute(() -> subscribers.forEach(Subscriber::heartbeat));
+    }
+
+    // Closes streams before graceful shutdown starts waiting for in-flight requests
+    @EventListener(ContextClosedEvent.class)
+    public void closeAll() {
+        subscribers.forEach(Subscriber::close);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        fanOut.shutdownNow();
+    }
+
+    private void scheduleFanOut() {
+        // Bursts of publishes collapse into one pass over the subscribers
+        if (fanOutScheduled.compareAndSet(false, true))
+            fanOut.execute(() -> {
+                fanOutScheduled.set(false);
+                subscribers.forEach(Subscriber::drain);
+            });
+    }
+
+    private int slot(long id) {
+        return (int) Math.floorMod(id, (long) bufferSize);
+    }
+
+    private static long parse(String lastEventId) {
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private final class Subscriber implements WriteListener, AsyncListener {
+        private final AsyncContext async;
+        private final ServletOutputStream out;
+        private long cursor;
+        private byte[] preamble;
+        private boolean resync;
+        private boolean heartbeatDue;
+        private boolean unflushed;
+        private boolean closed;
+
+        Subscriber(AsyncContext async, ServletOutputStream out, long cursor, byte[] preamble, boolean resync) {
+            this.async = async;
+            this.out = out;
+            this.cursor = cursor;
+            this.preamble = preamble;
+            this.resync = resync;
+        }
+
+        synchronized void heartbeat() {
+            heartbeatDue = true;
+            drain();
+        }
+
+        // Writes whatever is pending while the socket accepts it; called by the fan-out thread and the container
+        synchronized void drain() {
+            if (closed)
+                return;
+            try {
+                while (out.isReady()) {
+                    if (preamble != null) {
+                        write(preamble);
+                        preamble = null;
+                    } else if (resync) {
+                        write(RESYNC);
+                        resync = false;
+                    } else if (cursor < nextId) {
+                        Frame frame = ring.get(slot(cursor));
+                        if (frame == null || frame.id() != cursor) {
+                            evict();
+                            return;
+                        }
+                        write(frame.bytes());
+                        cursor++;
+                    } else if (heartbeatDue) {
+                        write(HEARTBEAT);
+                    } else if (unflushed) {
+                        out.flush();
+                        unflushed = false;
+                    } else {
+                        return;
+                    }
+                }
+                // Not writable: onWritePossible resumes later, unless the ring has already lapped this client
+                if (nextId - cursor > bufferSize)
+                    evict();
+            } catch (IOException | IllegalStateException e) {
+                close();
+            }
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            out.write(bytes);
+            heartbeatDue = false;
+            unflushed = true;
+        }
+
+        private void evict() {
+            evictions.increment();
+            log.debug("Evicting live feed client {} events behind", nextId - cursor);
+            close();
+        }
+
+        synchronized void close() {
+            if (closed)
+                return;
+            closed = true;
+            subscribers.remove(this);
+            try {
+                async.complete();
+            } catch (IllegalStateException ignored) {
+                // Already completed by the container
+            }
+        }
+
+        @Override
+        public void onWritePossible() {
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            close();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            synchronized (this) {
+                closed = true;
+            }
+            subscribers.remove(this);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
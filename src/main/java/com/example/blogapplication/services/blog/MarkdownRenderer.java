@@ -0,0 +1,56 @@
+package com.example.blogapplication.services.blog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.DefaultUrlSanitizer;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Markdown to sanitised HTML: raw HTML in the source is escaped and link and image targets other than relative,
+ * http(s) and mailto URLs (javascript:, data:, ...) are dropped. Results are kept in a size-bounded cache keyed by the SHA-256 of the source, in front of the
+ * blogs.content_html column, so the same text is rendered once.
+ */
+@Service
+public class MarkdownRenderer {
+
+    private final Parser parser = Parser.builder().build();
+    // The default sanitiser also lets data: through
+    private final HtmlRenderer renderer = HtmlRenderer.builder().escapeHtml(true).sanitizeUrls(true)
+            .urlSanitizer(new DefaultUrlSanitizer(List.of("http", "https", "mailto"))).build();
+    private final Cache<String, String> cache;
+
+    public MarkdownRenderer(@Value("${blog.markdown.cache-size:16MB}") DataSize cacheSize, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(cacheSize.toBytes())
+                .weigher((String hash, String html) -> hash.length() + 2 * html.length())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "blog.markdown");
+    }
+
+    public String render(String markdown) {
+        if (markdown == null)
+            return null;
+        return cache.get(hash(markdown), key -> renderer.render(parser.parse(markdown)));
+    }
+
+    private static String hash(String markdown) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(markdown.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.blogapplication.services.blog;
+
+import com.example.blogapplication.db2.reactive.BlogPost;
+import com.example.blogapplication.db2.reactive.ReactiveBlogRepository;
+import com.example.blogapplication.exceptions.ArchivedContentUnavailableException;
+import com.example.blogapplication.services.archive.BlogArchive;
+import com.example.blogapplication.util.ContentCodec;
+import com.example.blogapplication.util.ReactiveGuard;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+@Service
+public class PostReadService {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    ReactiveBlogRepository reactiveBlogRepository;
+    @Autowired
+    TagIndex tagIndex;
+    @Autowired
+    ViewCounter viewCounter;
+    @Autowired
+    MarkdownRenderer markdownRenderer;
+    @Autowired
+    ContentCodec contentCodec;
+    @Autowired
+    BlogArchive blogArchive;
+    // Every query below goes through blog_db's breaker and bulkhead
+    @Autowired
+    ReactiveGuard blogDbReactiveGuard;
+
+    public Flux<BlogPost> feed(Integer before, Integer limit) {
+        int size = pageSize(limit);
+        if (before == null)
+            return blogDbReactiveGuard.flux(reactiveBlogRepository.findLatest(size)).concatMap(this::readable);
+        return blogDbReactiveGuard.flux(reactiveBlogRepository.findLatestBefore(before, size)).concatMap(this::readable);
+    }
+
+    // Posts tagged with every tag in `all` and at least one in `any`; matching ids come from the bitmap index
+    public Flux<BlogPost> feedByTags(Collection<String> all, Collection<String> any, Integer before, Integer limit) {
+        List<Integer> ids = tagIndex.newest(normalize(all), normalize(any), before == null ? Integer.MAX_VALUE : before, pageSize(limit));
+        if (ids.isEmpty())
+            return Flux.empty();
+        return blogDbReactiveGuard.flux(reactiveBlogRepository.findAllByIdDesc(ids)).concatMap(this::readable);
+    }
+
+    // Reading a single post counts as a view (in memory; see ViewCounter)
+    public Mono<BlogPost> findById(Integer id) {
+        return blogDbReactiveGuard.mono(reactiveBlogRepository.findById(id))
+                .flatMap(this::readable)
+                .doOnNext(post -> viewCounter.increment(post.id()));
+    }
+
+    // Approximate live count: last flushed value plus views not flushed yet
+    public Mono<Long> views(Integer id) {
+        return blogDbReactiveGuard.mono(reactiveBlogRepository.findViews(id))
+                .defaultIfEmpty(0L)
+                .map(persisted -> persisted + viewCounter.unflushed(id));
+    }
+
+    public Flux<BlogPost> search(String query, Integer before, Integer limit) {
+        String pattern = "%" + escapeLike(query.trim()) + "%";
+        return blogDbReactiveGuard.flux(reactiveBlogRepository.search(pattern, before == null ? Integer.MAX_VALUE : before, pageSize(limit)))
+                .concatMap(this::readable);
+    }
+
+    // Content decoded from its stored form (see ContentCodec). HTML is normally rendered at write time;
+    // older rows are rendered once (through the cache) and written back
+    private Mono<BlogPost> readable(BlogPost stored) {
+        if (Boolean.TRUE.equals(stored.archived()))
+            return Mono.fromCallable(() -> fromArchive(stored)).subscribeOn(Schedulers.boundedElastic());
+        String content = contentCodec.decode(stored.content());
+        BlogPost post = content == stored.content() ? stored : stored.withContent(content);
+        if (post.contentHtml() != null)
+            return Mono.just(post);
+        String html = markdownRenderer.render(post.content());
+        return blogDbReactiveGuard.mono(reactiveBlogRepository.saveContentHtml(post.id(), html)).thenReturn(post.withContentHtml(html));
+    }
+
+    // Segment reads are memory-mapped and may fault pages in from disk, hence off the event loop
+    private BlogPost fromArchive(BlogPost stub) {
+        return blogArchive.find(stub.id())
+                .map(archived -> stub.withContent(archived.content()).withContentHtml(
+                        archived.contentHtml() != null ? archived.contentHtml() : markdownRenderer.render(archived.content())))
+                .orElseThrow(() -> new ArchivedContentUnavailableException(stub.id()));
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null || limit < 1)
+            return DEFAULT_PAGE_SIZE;
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    private List<String> normalize(Collection<String> tags) {
+        if (tags == null)
+            return List.of();
+        return tags.stream().map(tag -> tag.trim().toLowerCase(Locale.ROOT)).filter(tag -> !tag.isEmpty()).distinct().toList();
+    }
+
+    private String escapeLike(String query) {
+        return query.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
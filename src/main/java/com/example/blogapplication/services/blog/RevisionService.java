@@ -0,0 +1,106 @@
+package com.example.blogapplication.services.blog;
+
+import com.example.blogapplication.db2.entities.BlogEntity;
+import com.example.blogapplication.db2.entities.BlogRevisionEntity;
+import com.example.blogapplication.db2.repository.BlogRevisionRepository;
+import com.github.difflib.DiffUtils;
+import com.github.difflib.UnifiedDiffUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Revision history of blog edits. Every {@code blog.revisions.snapshot-interval}-th revision stores the full
+ * content; the others store a {@link LineDelta} against the revision before, falling back to a snapshot when the
+ * delta would not be meaningfully smaller. Reading a revision therefore costs one query and at most
+ * interval - 1 delta applications, while a typical small edit costs a few bytes.
+ */
+@Service
+public class RevisionService {
+
+    public record RevisionSummary(int revision, boolean snapshot, String title, String author, LocalDateTime createdAt,
+                                  int storedBytes) {
+    }
+
+    public record Revision(int blogId, int revision, String title, String author, String content, LocalDateTime createdAt) {
+    }
+
+    @Autowired
+    private BlogRevisionRepository revisionRepository;
+
+    @Value("${blog.revisions.snapshot-interval:10}")
+    private int snapshotInterval;
+
+    // Revision 1, the blog as created
+    @Transactional(transactionManager = "blogTransactionManager")
+    public void created(BlogEntity blog) {
+        save(blog.getId(), 1, true, blog.getTitle(), blog.getAuthor(), blog.getContent(), blog.getCreatedAt());
+    }
+
+    /**
+     * Records {@code updated}, whose content before the edit was {@code previousContent}. Blogs written before
+     * revisions existed get their pre-edit state as revision 1 first.
+     */
+    @Transactional(transactionManager = "blogTransactionManager")
+    public void updated(BlogEntity updated, String previousTitle, String previousAuthor, String previousContent,
+                        LocalDateTime previousModifiedAt) {
+        int blogId = updated.getId();
+        Object[] head = revisionRepository.findHead(blogId).getFirst();
+        Integer latest = (Integer) head[0];
+        Integer lastSnapshot = (Integer) head[1];
+        if (latest == null) {
+            save(blogId, 1, true, previousTitle, previousAuthor, previousContent, previousModifiedAt);
+            latest = lastSnapshot = 1;
+        }
+
+        int revision = latest + 1;
+        String content = updated.getContent();
+        String delta = LineDelta.encode(previousContent, content);
+        boolean snapshot = revision - lastSnapshot >= snapshotInterval || delta.length() * 2 > content.length();
+        save(blogId, revision, snapshot, updated.getTitle(), updated.getAuthor(), snapshot ? content : delta, updated.getUpdatedAt());
+    }
+
+    @Transactional(transactionManager = "blogTransactionManager", readOnly = true)
+    public List<RevisionSummary> list(int blogId) {
+        return revisionRepository.findSummaries(blogId).stream()
+                .map(row -> new RevisionSummary((Integer) row[0], (Boolean) row[1], (String) row[2], (String) row[3],
+                        (LocalDateTime) row[4], (Integer) row[5]))
+                .toList();
+    }
+
+    @Transactional(transactionManager = "blogTransactionManager", readOnly = true)
+    public Optional<Revision> find(int blogId, int revision) {
+        List<BlogRevisionEntity> chain = revisionRepository.findChain(blogId, revision);
+        if (chain.isEmpty() || chain.getLast().getRevision() != revision)
+            return Optional.empty();
+        String content = chain.getFirst().getBody();
+        for (BlogRevisionEntity delta : chain.subList(1, chain.size()))
+            content = delta.isSnapshot() ? delta.getBody() : LineDelta.apply(content, delta.getBody());
+        BlogRevisionEntity last = chain.getLast();
+        return Optional.of(new Revision(blogId, revision, last.getTitle(), last.getAuthor(), content, last.getCreatedAt()));
+    }
+
+    /** Unified diff of the content of two revisions; empty when either does not exist. */
+    @Transactional(transactionManager = "blogTransactionManager", readOnly = true)
+    public Optional<String> diff(int blogId, int from, int to) {
+        Optional<Revision> source = find(blogId, from);
+        Optional<Revision> target = find(blogId, to);
+        if (source.isEmpty() || target.isEmpty())
+            return Optional.empty();
+        List<String> original = LineDelta.lines(source.get().content());
+        List<String> revised = LineDelta.lines(target.get().content());
+        List<String> unified = UnifiedDiffUtils.generateUnifiedDiff("revision " + from, "revision " + to,
+                original, DiffUtils.diff(original, revised), 3);
+        return Optional.of(unified.isEmpty() ? "" : String.join("\n", unified) + "\n");
+    }
+
+    private void save(int blogId, int revision, boolean snapshot, String title, String author, String body, LocalDateTime createdAt) {
+        revisionRepository.save(new BlogRevisionEntity(0, blogId, revision, snapshot, title, author, body,
+                createdAt != null ? createdAt : LocalDateTime.now()));
+    }
+}
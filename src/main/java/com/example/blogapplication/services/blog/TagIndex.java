@@ -0,0 +1,140 @@
+package com.example.blogapplication.services.blog;
+
+import com.example.blogapplication.db2.repository.BlogRepository;
+import com.example.blogapplication.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory inverted index of blog tags: one compressed (Roaring) bitmap of blog ids per tag.
+ * Multi-tag AND/OR filters are bitmap intersections/unions, and the newest matching ids are read
+ * straight off the result to feed the keyset feed query. Loaded from blog_tags at startup and kept
+ * current by {@link BlogService} writes (applied after commit). A reload (also at runtime, when the change log
+ * drops the caches) replays the writes applied while it was reading onto what it read before swapping it in.
+ */
+@Slf4j
+@Component
+public class TagIndex {
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    private final Map<String, RoaringBitmap> bitmaps = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Updates applied while rebuild() reads blog_tags, guarded by the write lock; null when no rebuild is running
+    private List<Consumer<Map<String, RoaringBitmap>>> duringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        track(new ArrayList<>());
+        Map<String, RoaringBitmap> loaded = new HashMap<>();
+        try {
+            for (Object[] row : blogRepository.findAllTags())
+                loaded.computeIfAbsent((String) row[1], tag -> new RoaringBitmap()).add((Integer) row[0]);
+            loaded.values().forEach(RoaringBitmap::runOptimize);
+        } catch (RuntimeException e) {
+            track(null);
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Applied again if the query already saw them; replacing or removing a blog's tags is idempotent
+            duringRebuild.forEach(update -> update.accept(loaded));
+            duringRebuild = null;
+            bitmaps.clear();
+            bitmaps.putAll(loaded);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Tag index loaded: {} tags", loaded.size());
+    }
+
+    /** Replaces the tags of a blog; with an active transaction the change is applied once it commits. */
+    public void index(int blogId, Collection<String> tags) {
+        AfterCommit.run(() -> apply(index -> {
+            removeFromAll(index, blogId);
+            for (String tag : tags)
+                index.computeIfAbsent(tag, t -> new RoaringBitmap()).add(blogId);
+        }));
+    }
+
+    public void remove(int blogId) {
+        AfterCommit.run(() -> apply(index -> removeFromAll(index, blogId)));
+    }
+
+    /**
+     * Ids of blogs carrying every tag in {@code all} (AND) and at least one tag in {@code any} (OR),
+     * newest first, strictly below {@code before}, at most {@code limit} of them.
+     */
+    public List<Integer> newest(Collection<String> all, Collection<String> any, int before, int limit) {
+        RoaringBitmap matches = match(all, any);
+        matches.remove(Math.max(before, 0), 1L << 32);
+        List<Integer> ids = new ArrayList<>(Math.min(limit, matches.getCardinality()));
+        IntIterator it = matches.getReverseIntIterator();
+        while (it.hasNext() && ids.size() < limit)
+            ids.add(it.next());
+        return ids;
+    }
+
+    RoaringBitmap match(Collection<String> all, Collection<String> any) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = null;
+            for (String tag : all) {
+                RoaringBitmap bitmap = bitmaps.get(tag);
+                if (bitmap == null)
+                    return new RoaringBitmap();
+                result = result == null ? bitmap.clone() : RoaringBitmap.and(result, bitmap);
+            }
+            if (!any.isEmpty()) {
+                RoaringBitmap union = RoaringBitmap.or(any.stream().map(bitmaps::get).filter(b -> b != null).iterator());
+                result = result == null ? union : RoaringBitmap.and(result, union);
+            }
+            return result == null ? new RoaringBitmap() : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void track(List<Consumer<Map<String, RoaringBitmap>>> updates) {
+        lock.writeLock().lock();
+        try {
+            duringRebuild = updates;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<Map<String, RoaringBitmap>> update) {
+        lock.writeLock().lock();
+        try {
+            update.accept(bitmaps);
+            if (duringRebuild != null)
+                duringRebuild.add(update);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void removeFromAll(Map<String, RoaringBitmap> index, int blogId) {
+        index.values().removeIf(bitmap -> {
+            bitmap.remove(blogId);
+            return bitmap.isEmpty();
+        });
+    }
+}
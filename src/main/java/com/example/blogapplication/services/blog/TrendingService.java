@@ -0,0 +1,209 @@
+package com.example.blogapplication.services.blog;
+
+import com.example.blogapplication.db2.entities.BlogEntity;
+import com.example.blogapplication.db2.repository.BlogRepository;
+import com.example.blogapplication.db2.repository.CommentRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trending posts. Engagement (creation, views, comments) is scored with forward exponential decay: an event
+ * at time t adds {@code weight * 2^((t - epoch) / halfLife)}. Older events are therefore worth relatively less,
+ * yet no stored score ever has to be decayed, and scores only grow. That makes a bounded top-K set exact under
+ * incremental updates: an entry can only enter or move up, and an evicted one re-enters only by growing.
+ * <p>
+ * A scheduled tick folds in new posts, comments and flushed views, then publishes the top K (serialised once)
+ * as an immutable snapshot; {@code /blog/trending} just returns its bytes.
+ */
+@Slf4j
+@Service
+public class TrendingService {
+
+    public record TrendingPost(int id, String title, String author, LocalDateTime createdAt, double score) {
+    }
+
+    private record Ranked(int id, double score) {
+    }
+
+    private static final Comparator<Ranked> BY_SCORE = Comparator.comparingDouble(Ranked::score).thenComparingInt(Ranked::id);
+    // Rebase the epoch before 2^exponent gets anywhere near double's range
+    private static final double MAX_EXPONENT = 512;
+
+    @Autowired
+    private BlogRepository blogRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${blog.trending.top-k:20}")
+    private int topK;
+    @Value("${blog.trending.half-life:6h}")
+    private Duration halfLife;
+    @Value("${blog.trending.weight.post:20}")
+    private double postWeight;
+    @Value("${blog.trending.weight.view:1}")
+    private double viewWeight;
+    @Value("${blog.trending.weight.comment:10}")
+    private double commentWeight;
+
+    // Views flushed by ViewCounter since the last tick
+    private final Map<Integer, Long> pendingViews = new ConcurrentHashMap<>();
+
+    // Only touched under the monitor (startup load and scheduled ticks)
+    private final Map<Integer, Double> scores = new HashMap<>();
+    private final TreeSet<Ranked> top = new TreeSet<>(BY_SCORE);
+    private Instant epoch = Instant.now();
+    private int lastBlogId;
+    private int lastCommentId;
+
+    private volatile byte[] snapshot = "[]".getBytes(StandardCharsets.UTF_8);
+
+    public byte[] snapshot() {
+        return snapshot;
+    }
+
+    public void viewsFlushed(Map<Integer, Long> views) {
+        views.forEach((blogId, n) -> pendingViews.merge(blogId, n, Long::sum));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        scores.clear();
+        top.clear();
+        pendingViews.clear();
+        epoch = Instant.now();
+        lastBlogId = 0;
+        // Existing posts: past views and comments have no timestamp here, so they are dated at the post's creation
+        for (Object[] row : blogRepository.findEngagement()) {
+            int id = ((Number) row[0]).intValue();
+            double weight = postWeight + viewWeight * ((Number) row[2]).doubleValue() + commentWeight * ((Number) row[3]).doubleValue();
+            add(id, weight, toLocalDateTime(row[1]));
+            lastBlogId = Math.max(lastBlogId, id);
+        }
+        Integer maxCommentId = commentRepository.findMaxId();
+        lastCommentId = maxCommentId == null ? 0 : maxCommentId;
+        publish();
+    }
+
+    @Scheduled(fixedDelayString = "${blog.trending.refresh-interval:30s}", initialDelayString = "${blog.trending.refresh-interval:30s}")
+    public synchronized void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Object[] row : blogRepository.findCreatedAfter(lastBlogId)) {
+            int id = (Integer) row[0];
+            add(id, postWeight, row[1] == null ? now : (LocalDateTime) row[1]);
+            lastBlogId = Math.max(lastBlogId, id);
+        }
+        for (Object[] row : commentRepository.countNewByBlog(lastCommentId)) {
+            add((Integer) row[0], commentWeight * ((Number) row[1]).doubleValue(), now);
+            lastCommentId = Math.max(lastCommentId, (Integer) row[2]);
+        }
+        for (Integer blogId : List.copyOf(pendingViews.keySet())) {
+            Long views = pendingViews.remove(blogId);
+            if (views != null && scores.containsKey(blogId))
+                add(blogId, viewWeight * views, now);
+        }
+        publish();
+    }
+
+    private void add(int blogId, double weight, LocalDateTime at) {
+        if (at == null)
+            at = LocalDateTime.now();
+        double exponent = Duration.between(epoch, at.atZone(ZoneId.systemDefault()).toInstant()).toMillis() / (double) halfLife.toMillis();
+        if (exponent > MAX_EXPONENT) {
+            rebase(at.atZone(ZoneId.systemDefault()).toInstant());
+            exponent = 0;
+        }
+        Double old = scores.get(blogId);
+        double score = (old == null ? 0 : old) + weight * Math.pow(2, exponent);
+        scores.put(blogId, score);
+
+        if (old != null && top.remove(new Ranked(blogId, old))) {
+            top.add(new Ranked(blogId, score));
+        } else if (top.size() < topK) {
+            top.add(new Ranked(blogId, score));
+        } else if (BY_SCORE.compare(new Ranked(blogId, score), top.first()) > 0) {
+            top.pollFirst();
+            top.add(new Ranked(blogId, score));
+        }
+    }
+
+    // Scaling every score by the same factor keeps the order; only the stored numbers change
+    private void rebase(Instant newEpoch) {
+        double factor = Math.pow(2, -Duration.between(epoch, newEpoch).toMillis() / (double) halfLife.toMillis());
+        scores.replaceAll((id, score) -> score * factor);
+        List<Ranked> rescaled = top.stream().map(r -> new Ranked(r.id(), scores.get(r.id()))).toList();
+        top.clear();
+        top.addAll(rescaled);
+        epoch = newEpoch;
+    }
+
+    // Rare (after deletions): scan for the best scores not already in the top set
+    private void refill() {
+        scores.forEach((id, score) -> {
+            Ranked candidate = new Ranked(id, score);
+            if (top.contains(candidate))
+                return;
+            if (top.size() < topK) {
+                top.add(candidate);
+            } else if (BY_SCORE.compare(candidate, top.first()) > 0) {
+                top.pollFirst();
+                top.add(candidate);
+            }
+        });
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp)
+            return timestamp.toLocalDateTime();
+        return (LocalDateTime) value;
+    }
+
+    private void publish() {
+        List<Ranked> ranked = new ArrayList<>(top.descendingSet());
+        Map<Integer, BlogEntity> blogs = new HashMap<>();
+        blogRepository.findAllById(ranked.stream().map(Ranked::id).toList()).forEach(blog -> blogs.put(blog.getId(), blog));
+
+        // Scores reported as of now, i.e. decayed back from the epoch scale
+        double toNow = Math.pow(2, -Duration.between(epoch, Instant.now()).toMillis() / (double) halfLife.toMillis());
+        List<TrendingPost> posts = new ArrayList<>(ranked.size());
+        for (Ranked r : ranked) {
+            BlogEntity blog = blogs.get(r.id());
+            if (blog == null) {
+                // Deleted since it was scored; the next best takes its place from the next tick on
+                top.remove(r);
+                scores.remove(r.id());
+                refill();
+                continue;
+            }
+            posts.add(new TrendingPost(blog.getId(), blog.getTitle(), blog.getAuthor(), blog.getCreatedAt(), r.score() * toNow));
+        }
+        try {
+            snapshot = objectMapper.writeValueAsBytes(List.copyOf(posts));
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialise trending snapshot", e);
+        }
+    }
+}
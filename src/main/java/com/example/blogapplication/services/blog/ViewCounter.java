@@ -0,0 +1,87 @@
+package com.example.blogapplication.services.blog;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Post view counts without a write per read: views are added to a striped in-memory counter per blog id
+ * and the accumulated deltas are written to blog_views by one batched upsert on a schedule (and once more
+ * on shutdown). Live counts are the persisted value plus whatever has not been flushed yet.
+ */
+@Slf4j
+@Component
+public class ViewCounter {
+
+    // The blogs join skips deltas for posts deleted since they were viewed (instead of failing the batch on the FK)
+    private static final String UPSERT = "INSERT INTO blog_views (blog_id, views) SELECT id, ? FROM blogs WHERE id = ? "
+            + "ON DUPLICATE KEY UPDATE views = views + ?";
+
+    @Autowired
+    private TrendingService trendingService;
+
+    private final Map<Integer, LongAdder> pending = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public ViewCounter(@Qualifier("blogDataSource") DataSource blogDataSource,
+                       @Qualifier("blogTransactionManager") PlatformTransactionManager blogTransactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(blogDataSource);
+        this.transactionTemplate = new TransactionTemplate(blogTransactionManager);
+    }
+
+    public void increment(int blogId) {
+        pending.computeIfAbsent(blogId, id -> new LongAdder()).increment();
+    }
+
+    public long unflushed(int blogId) {
+        LongAdder adder = pending.get(blogId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    @Scheduled(fixedDelayString = "${blog.views.flush-interval:10s}", initialDelayString = "${blog.views.flush-interval:10s}")
+    public synchronized void flush() {
+        // Take exactly what was read off each counter; views arriving meanwhile stay for the next flush
+        List<Object[]> batch = new ArrayList<>();
+        Map<Integer, Long> taken = new HashMap<>();
+        pending.forEach((blogId, adder) -> {
+            long delta = adder.sum();
+            if (delta > 0) {
+                adder.add(-delta);
+                taken.put(blogId, delta);
+                batch.add(new Object[]{delta, blogId, delta});
+            }
+        });
+        if (batch.isEmpty())
+            return;
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT, batch));
+            log.debug("Flushed views for {} blogs", batch.size());
+            trendingService.viewsFlushed(taken);
+        } catch (RuntimeException e) {
+            taken.forEach((blogId, delta) -> pending.computeIfAbsent(blogId, id -> new LongAdder()).add(delta));
+            log.warn("Could not flush views for {} blogs, keeping them for the next attempt", batch.size(), e);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
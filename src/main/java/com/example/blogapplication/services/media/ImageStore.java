@@ -0,0 +1,95 @@
+package com.example.blogapplication.services.media;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed image files on local disk: an upload is streamed to a temp file while its SHA-256 is
+ * computed, then moved to {@code <root>/<first two hex chars>/<sha-256>.<ext>}. Identical uploads share a file,
+ * and a name never changes content, so it can be cached forever.
+ */
+@Slf4j
+@Service
+public class ImageStore {
+
+    public static final Pattern NAME = Pattern.compile("[0-9a-f]{64}\\.(png|jpg|gif|webp)");
+
+    public record StoredImage(String name, boolean created) {
+    }
+
+    private final Path root;
+    private final Path thumbnails;
+
+    public ImageStore(@Value("${blog.media.root:data/media}") Path root) throws IOException {
+        this.root = root.toAbsolutePath();
+        this.thumbnails = this.root.resolve("thumbs");
+        Files.createDirectories(this.thumbnails);
+    }
+
+    /** Streams the upload to disk (never held in memory as a whole). Empty if the bytes are not a supported image. */
+    public Optional<StoredImage> store(InputStream upload) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(upload);
+        String extension = sniff(in);
+        if (extension == null)
+            return Optional.empty();
+
+        Path temp = Files.createTempFile(root, "upload-", ".tmp");
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), sha256)) {
+                in.transferTo(out);
+            }
+            String name = HexFormat.of().formatHex(sha256.digest()) + "." + extension;
+            Path target = original(name);
+            if (Files.exists(target))
+                return Optional.of(new StoredImage(name, false));
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            return Optional.of(new StoredImage(name, true));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public Path original(String name) {
+        return root.resolve(name.substring(0, 2)).resolve(name);
+    }
+
+    public Path thumbnail(String name) {
+        return thumbnails.resolve(name.substring(0, 2)).resolve(name);
+    }
+
+    // Magic numbers of the formats we accept; the client's Content-Type is not trusted
+    private static String sniff(BufferedInputStream in) throws IOException {
+        in.mark(12);
+        byte[] head = in.readNBytes(12);
+        in.reset();
+        if (head.length >= 8 && (head[0] & 0xff) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G')
+            return "png";
+        if (head.length >= 3 && (head[0] & 0xff) == 0xff && (head[1] & 0xff) == 0xd8 && (head[2] & 0xff) == 0xff)
+            return "jpg";
+        if (head.length >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8')
+            return "gif";
+        if (head.length >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P')
+            return "webp";
+        return null;
+    }
+}
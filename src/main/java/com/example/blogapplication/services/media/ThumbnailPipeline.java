@@ -0,0 +1,133 @@
+package com.example.blogapplication.services.media;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resizes uploaded images in the background so uploads return as soon as the original is on disk.
+ * Work goes through a bounded queue; when it is full the thumbnail is skipped and readers keep getting
+ * the original (see MediaController). Not a Spring Executor bean, so Boot's task executor is untouched.
+ */
+@Slf4j
+@Service
+public class ThumbnailPipeline {
+
+    @Autowired
+    private ImageStore imageStore;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${blog.media.thumbnail-width:320}")
+    private int width;
+    // Decoding needs about 4 bytes per pixel whatever the file size, so the header is checked first
+    @Value("${blog.media.max-pixels:40000000}")
+    private long maxPixels;
+
+    private final ThreadPoolExecutor executor;
+
+    public ThumbnailPipeline(@Value("${blog.media.thumbnail-threads:2}") int threads,
+                             @Value("${blog.media.thumbnail-queue:100}") int queueCapacity) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Thread.ofPlatform().name("thumbnail-", 0).daemon().factory());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public void submit(String name) {
+        try {
+            executor.execute(() -> generate(name));
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("blog.media.thumbnails", "outcome", "rejected").increment();
+            log.warn("Thumbnail queue full, serving the original for {}", name);
+        }
+    }
+
+    void generate(String name) {
+        Path target = imageStore.thumbnail(name);
+        if (Files.exists(target))
+            return;
+        String format = name.substring(name.lastIndexOf('.') + 1);
+        try {
+            BufferedImage source = decode(imageStore.original(name), format);
+            if (source == null)
+                return;
+            BufferedImage thumbnail = source.getWidth() <= width ? source : scale(source);
+
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), "thumb-", ".tmp");
+            try {
+                ImageIO.write(thumbnail, format.equals("jpg") ? "jpeg" : format, temp.toFile());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            meterRegistry.counter("blog.media.thumbnails", "outcome", "created").increment();
+        } catch (IOException | RuntimeException e) {
+            meterRegistry.counter("blog.media.thumbnails", "outcome", "failed").increment();
+            log.error("Could not create thumbnail for {}", name, e);
+        }
+    }
+
+    // Null (and counted) when there is no ImageIO reader or writer (webp) or the image is over maxPixels
+    private BufferedImage decode(Path original, String format) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext() || !ImageIO.getImageWritersByFormatName(format).hasNext()) {
+                meterRegistry.counter("blog.media.thumbnails", "outcome", "unsupported").increment();
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    meterRegistry.counter("blog.media.thumbnails", "outcome", "too-large").increment();
+                    log.warn("Not decoding {}: {} pixels is over the {} limit, serving the original", original.getFileName(), pixels, maxPixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scale(BufferedImage source) {
+        int height = Math.max(1, Math.round(source.getHeight() * (width / (float) source.getWidth())));
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage scaled = new BufferedImage(width, height, type);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -2,7 +2,17 @@ package com.example.blogapplication.services.user;
 
 import com.example.blogapplication.db1.entities.UserEntity;
 import com.example.blogapplication.db1.repositories.UserRepository;
+import com.example.blogapplication.util.AfterCommit;
+import com.example.blogapplication.util.ChangeLog;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,18 +20,48 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.regex.Pattern;
 
+@Slf4j
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, ChangeLog.Listener {
+    public static final String ENTITY = "user";
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    @Qualifier("userChangeLog")
+    private ChangeLog changeLog;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("userTransactionManager")
+    private PlatformTransactionManager userTransactionManager;
+
+    private TransactionTemplate readOnly;
+
+    @Value("${blog.user-cache.maximum-size:10000}")
+    private long cacheSize;
+
+    // Expiry bounds staleness on its own too, should an invalidation ever be missed
+    @Value("${blog.change-log.max-staleness:30s}")
+    private Duration cacheTtl;
+
+    // Password hash by email for the per-request JWT user lookup; other nodes' writes arrive through the change log
+    private Cache<String, String> passwords;
+
     @Lazy
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -29,24 +69,36 @@ public class UserService implements UserDetailsService {
     private final String EMAIL_REGEX = "^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$";
     private final String PASSWORD_REGEX = "^(?=.*[A-Z])(?=.*[a-z])(?=.*\\d)(?=.*[@$!%*?&])[A-Za-z\\d@$!%*?&]{8,}$";
 
-    @Transactional
+    @PostConstruct
+    void init() {
+        readOnly = new TransactionTemplate(userTransactionManager);
+        readOnly.setReadOnly(true);
+        passwords = Caffeine.newBuilder().maximumSize(cacheSize).expireAfterWrite(cacheTtl).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, passwords, "blog.users");
+        changeLog.addListener(this);
+    }
+
+    @Transactional(transactionManager = "userTransactionManager")
     public boolean saveUser(UserEntity user) {
 
         if (Objects.nonNull(user)) {
             if (user.getResetToken()!=null){
                 UserEntity save = Objects.requireNonNull(userRepository.save(user));
+                recordChange(save, ChangeLog.Op.UPDATED);
                 return true;
             }
 
+            // A password reset saves an existing user through here too
+            ChangeLog.Op op = user.getId() == null ? ChangeLog.Op.CREATED : ChangeLog.Op.UPDATED;
             String password=passwordEncoder.encode(user.getPassword());
             user.setPassword(password);
             try {
 
                 UserEntity save = Objects.requireNonNull(userRepository.save(user));
+                recordChange(save, op);
                 return true;
             } catch (Exception e) {
-                System.out.println(e.getMessage());
-                System.out.println(e.getStackTrace());
+                log.error("Could not save user", e);
                 return false;
             }
         }
@@ -64,11 +116,13 @@ public class UserService implements UserDetailsService {
         return true;
     }
 
+    @Transactional(transactionManager = "userTransactionManager", readOnly = true)
     public Optional<UserEntity> findUserByEmail(String email){
         Optional<UserEntity> user = userRepository.findByEmail(email);
        return user;
     }
 
+    @Transactional(transactionManager = "userTransactionManager", readOnly = true)
     public boolean checkUserExist(String email){
         Optional<UserEntity> user = userRepository.findByEmail(email);
         if(user.isPresent())
@@ -76,6 +130,7 @@ public class UserService implements UserDetailsService {
         else
             return false;
     }
+    @Transactional(transactionManager = "userTransactionManager", readOnly = true)
     public UserEntity findUserById(Integer id){
         Optional<UserEntity> user=userRepository.findById(id);
         if(user.isPresent()){
@@ -85,6 +140,7 @@ public class UserService implements UserDetailsService {
             return null;
     }
 
+    @Transactional(transactionManager = "userTransactionManager")
     public boolean changePassword(Integer id,String newPasswod,String confirmPassword){
         boolean isPasswordCorrect = checkPassword(newPasswod, confirmPassword);
         if (!isPasswordCorrect)
@@ -94,18 +150,43 @@ public class UserService implements UserDetailsService {
         if (Objects.nonNull(user)){
             user.setPassword(newPasswod);
             userRepository.save(user);
+            recordChange(user, ChangeLog.Op.UPDATED);
             return true;
         }
         return false;
     }
 
+    // Served from the cache only while the change log is being read, i.e. while other nodes' writes are seen in time.
+    // Misses load inside the cache's per-key compute: an invalidation waits for a load in flight and then removes
+    // what it read, so a hash read before a password change commits cannot outlive the change
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        Optional<UserEntity> userByEmail = findUserByEmail(email);
-        if (userByEmail.isPresent()){
-            UserEntity user=userByEmail.get();
-            return new User(user.getEmail(),user.getPassword(), Collections.emptyList());
-        }
-        return null;
+        String password = changeLog.isFresh() ? passwords.get(email, this::loadPassword) : loadPassword(email);
+        if (password == null)
+            return null;
+        // A new User each time: authentication erases the credentials of the instance it is handed
+        return new User(email, password, Collections.emptyList());
+    }
+
+    // A read-only transaction of its own: the cache hit path above opens none
+    private String loadPassword(String email) {
+        return readOnly.execute(status -> userRepository.findByEmail(email).map(UserEntity::getPassword).orElse(null));
+    }
+
+    @Override
+    public void changed(List<ChangeLog.Change> changes) {
+        for (ChangeLog.Change change : changes)
+            if (ENTITY.equals(change.entity()))
+                passwords.invalidate(change.key());
+    }
+
+    @Override
+    public void invalidateAll() {
+        passwords.invalidateAll();
+    }
+
+    private void recordChange(UserEntity user, ChangeLog.Op op) {
+        changeLog.record(ENTITY, user.getEmail(), op);
+        AfterCommit.run(() -> passwords.invalidate(user.getEmail()));
     }
 }
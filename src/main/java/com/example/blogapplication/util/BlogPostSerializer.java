@@ -0,0 +1,77 @@
+package com.example.blogapplication.util;
+
+import com.example.blogapplication.db2.reactive.BlogPost;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Hand-written serialiser for {@link BlogPost}, the type every feed, search and post read streams. Field names are
+ * encoded once up front and written in component order, with the same output as the default record serialiser
+ * (nulls included, dates through the mapper's own LocalDateTime serialiser, resolved once per mapper; the storage
+ * flag {@code archived} left out).
+ */
+public class BlogPostSerializer extends StdSerializer<BlogPost> implements ContextualSerializer {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString TITLE = new SerializedString("title");
+    private static final SerializableString CONTENT = new SerializedString("content");
+    private static final SerializableString AUTHOR = new SerializedString("author");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializableString UPDATED_AT = new SerializedString("updatedAt");
+    private static final SerializableString IMAGE = new SerializedString("image");
+    private static final SerializableString CONTENT_HTML = new SerializedString("contentHtml");
+
+    private final JsonSerializer<Object> dates;
+
+    public BlogPostSerializer() {
+        this(null);
+    }
+
+    private BlogPostSerializer(JsonSerializer<Object> dates) {
+        super(BlogPost.class);
+        this.dates = dates;
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) throws JsonMappingException {
+        return dates != null ? this : new BlogPostSerializer(provider.findValueSerializer(LocalDateTime.class));
+    }
+
+    @Override
+    public void serialize(BlogPost post, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(post);
+        gen.writeFieldName(ID);
+        if (post.id() == null) gen.writeNull(); else gen.writeNumber(post.id());
+        string(gen, TITLE, post.title());
+        string(gen, CONTENT, post.content());
+        string(gen, AUTHOR, post.author());
+        date(gen, provider, CREATED_AT, post.createdAt());
+        date(gen, provider, UPDATED_AT, post.updatedAt());
+        string(gen, IMAGE, post.image());
+        string(gen, CONTENT_HTML, post.contentHtml());
+        gen.writeEndObject();
+    }
+
+    private static void string(JsonGenerator gen, SerializableString name, String value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) gen.writeNull(); else gen.writeString(value);
+    }
+
+    private void date(JsonGenerator gen, SerializerProvider provider, SerializableString name, LocalDateTime value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null)
+            gen.writeNull();
+        else
+            dates.serialize(value, gen, provider);
+    }
+}
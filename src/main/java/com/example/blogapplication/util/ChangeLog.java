@@ -0,0 +1,206 @@
+package com.example.blogapplication.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Cross-node cache invalidation for one database. Every mutation adds a row to {@code change_log} in the
+ * writer's transaction; each node polls the rows after its watermark in batches and hands the ones made by
+ * other nodes to its {@link Listener}s. Local changes are applied to local caches by the writer itself.
+ * <p>
+ * Sequence numbers are assigned at insert, not at commit, so a missing number may still be an open transaction:
+ * the poller keeps re-reading above such a gap for {@code gapTimeout} before giving up on it (a rollback). With a
+ * healthy poller a node therefore sees another node's change within roughly one poll interval (plus the commit
+ * time of any transaction still open below it). If polling keeps failing for {@code maxStaleness},
+ * {@link #isFresh()} turns false so caches stop serving, and listeners are told to drop everything once polling
+ * works again.
+ */
+@Slf4j
+public class ChangeLog {
+
+    public enum Op {
+        // ARCHIVED: content moved to the archive, nothing a reader sees changed
+        CREATED, UPDATED, DELETED, ARCHIVED;
+
+        char code() {
+            return name().charAt(0);
+        }
+
+        static Op of(String code) {
+            return switch (code) {
+                case "C" -> CREATED;
+                case "U" -> UPDATED;
+                case "A" -> ARCHIVED;
+                default -> DELETED;
+            };
+        }
+    }
+
+    public record Change(long seq, String entity, String key, Op op, String origin, LocalDateTime changedAt) {
+    }
+
+    public interface Listener {
+        // Changes made by other nodes, in sequence order
+        void changed(List<Change> changes);
+
+        // Anything cached may be stale
+        void invalidateAll();
+    }
+
+    private static final String INSERT = "INSERT INTO change_log (entity, entity_key, op, origin, changed_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT = "SELECT seq, entity, entity_key, op, origin, changed_at FROM change_log WHERE seq > ? ORDER BY seq LIMIT ?";
+
+    private final String unit;
+    private final String nodeId;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final Duration gapTimeout;
+    private final Duration maxStaleness;
+    private final Duration retention;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Timer lag;
+    private final Counter applied;
+
+    // Guarded by the monitor (poll)
+    private boolean started;
+    private long watermark;
+    private final Set<Long> seenAboveWatermark = new HashSet<>();
+    private final Map<Long, Long> gapsNoticedAt = new HashMap<>();
+    private volatile long lastSuccess = System.nanoTime();
+    private boolean degraded;
+
+    public ChangeLog(String unit, String nodeId, DataSource dataSource, int batchSize, Duration gapTimeout,
+                     Duration maxStaleness, Duration retention, MeterRegistry meterRegistry) {
+        this.unit = unit;
+        this.nodeId = nodeId;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.batchSize = batchSize;
+        this.gapTimeout = gapTimeout;
+        this.maxStaleness = maxStaleness;
+        this.retention = retention;
+        this.lag = Timer.builder("blog.change-log.lag").description("Commit on another node to invalidation here")
+                .tag("unit", unit).publishPercentileHistogram().register(meterRegistry);
+        this.applied = Counter.builder("blog.change-log.applied").tag("unit", unit).register(meterRegistry);
+        Gauge.builder("blog.change-log.gaps", this, log -> log.gapsNoticedAt.size()).tag("unit", unit).register(meterRegistry);
+    }
+
+    // Start after everything already in the log: caches are built from the database after this. Not during the
+    // refresh, so a context that never becomes ready (the CDS training run) never needs the database
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void start() {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(seq) FROM change_log", Long.class);
+        watermark = max == null ? 0 : max;
+        started = true;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /** Records a mutation; call inside the transaction making it so the row commits (or not) with it. */
+    public void record(String entity, Object key, Op op) {
+        jdbcTemplate.update(INSERT, entity, String.valueOf(key), String.valueOf(op.code()), nodeId, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public boolean isFresh() {
+        return System.nanoTime() - lastSuccess < maxStaleness.toNanos();
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Scheduled(fixedDelayString = "${blog.change-log.poll-interval:1s}")
+    public synchronized void poll() {
+        if (!started)
+            return;
+        List<Change> rows;
+        try {
+            rows = jdbcTemplate.query(SELECT, (rs, i) -> new Change(rs.getLong(1), rs.getString(2), rs.getString(3),
+                    Op.of(rs.getString(4)), rs.getString(5), rs.getTimestamp(6).toLocalDateTime()), watermark, batchSize);
+        } catch (RuntimeException e) {
+            if (!isFresh() && !degraded) {
+                degraded = true;
+                log.error("{} change log unreadable for over {}; local caches are bypassed until it recovers", unit, maxStaleness, e);
+            } else {
+                log.warn("Could not poll the {} change log", unit, e);
+            }
+            return;
+        }
+        lastSuccess = System.nanoTime();
+        if (degraded) {
+            degraded = false;
+            log.info("{} change log readable again; dropping local caches", unit);
+            listeners.forEach(Listener::invalidateAll);
+        }
+
+        long now = System.nanoTime();
+        List<Change> remote = new ArrayList<>();
+        long previous = watermark;
+        for (Change change : rows) {
+            for (long missing = previous + 1; missing < change.seq(); missing++)
+                if (!seenAboveWatermark.contains(missing))
+                    gapsNoticedAt.putIfAbsent(missing, now);
+            previous = change.seq();
+            if (!seenAboveWatermark.add(change.seq()))
+                continue;
+            gapsNoticedAt.remove(change.seq());
+            if (!change.origin().equals(nodeId)) {
+                remote.add(change);
+                lag.record(Duration.between(change.changedAt(), LocalDateTime.now()));
+            }
+        }
+        while (true) {
+            long next = watermark + 1;
+            Long noticed = gapsNoticedAt.get(next);
+            if (seenAboveWatermark.remove(next)) {
+                watermark = next;
+            } else if (noticed != null && now - noticed > gapTimeout.toNanos()) {
+                gapsNoticedAt.remove(next);
+                watermark = next;
+            } else {
+                break;
+            }
+        }
+        if (remote.isEmpty())
+            return;
+        applied.increment(remote.size());
+        for (Listener listener : listeners) {
+            try {
+                listener.changed(remote);
+            } catch (RuntimeException e) {
+                log.warn("Invalidation listener failed for {} {} changes; dropping its caches", remote.size(), unit, e);
+                listener.invalidateAll();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${blog.change-log.prune-interval:10m}")
+    public void prune() {
+        int pruned = jdbcTemplate.update("DELETE FROM change_log WHERE changed_at < ?", Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+        if (pruned > 0)
+            log.debug("Pruned {} {} change log rows", pruned, unit);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.blogapplication.util;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+
+// Reports a breaker's state and recent failure/slow-call rates; whenOpen is the status while it refuses calls
+public class CircuitBreakerHealthIndicator implements HealthIndicator {
+
+    private final CircuitBreaker circuitBreaker;
+    private final Status whenOpen;
+
+    public CircuitBreakerHealthIndicator(CircuitBreaker circuitBreaker, Status whenOpen) {
+        this.circuitBreaker = circuitBreaker;
+        this.whenOpen = whenOpen;
+    }
+
+    @Override
+    public Health health() {
+        CircuitBreaker.State state = circuitBreaker.getState();
+        CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+        boolean open = state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+        return Health.status(open ? whenOpen : Status.UP)
+                .withDetail("state", state)
+                .withDetail("failureRate", metrics.getFailureRate())
+                .withDetail("slowCallRate", metrics.getSlowCallRate())
+                .withDetail("bufferedCalls", metrics.getNumberOfBufferedCalls())
+                .withDetail("notPermittedCalls", metrics.getNumberOfNotPermittedCalls())
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.blogapplication.util;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Obtained by Hibernate from the Spring context (BlogDBConfig sets the bean container), so it sees the codec's settings
+@Component
+@Converter
+public class CompressedContentConverter implements AttributeConverter<String, String> {
+
+    @Autowired
+    private ContentCodec contentCodec;
+
+    @Override
+    public String convertToDatabaseColumn(String content) {
+        return contentCodec.encode(content);
+    }
+
+    @Override
+    public String convertToEntityAttribute(String stored) {
+        return contentCodec.decode(stored);
+    }
+}
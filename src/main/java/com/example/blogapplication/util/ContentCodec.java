@@ -0,0 +1,73 @@
+package com.example.blogapplication.util;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Stored form of blog content. Content at least {@code blog.content-compression.min-size} long is LZ4-compressed
+ * when {@code blog.content-compression.enabled}; everything else is stored as is. A compressed value is
+ * {@code MARKER 'L'} followed by Base64 of (4-byte length, LZ4 block), which keeps {@code blogs.content} a text
+ * column that old rows, new rows and the R2DBC read path all share; it is only used when it comes out smaller.
+ * Content that itself starts with {@link #MARKER} is stored as {@code MARKER 'R'} plus the text, so decoding
+ * is never ambiguous for rows it wrote. Decoding works whatever the current settings are.
+ */
+@Component
+public class ContentCodec {
+
+    public static final char MARKER = '\u0001';
+    private static final char LZ4 = 'L';
+    private static final char RAW = 'R';
+    private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+
+    private final boolean enabled;
+    private final long minBytes;
+
+    @Autowired
+    public ContentCodec(@Value("${blog.content-compression.enabled:false}") boolean enabled,
+                        @Value("${blog.content-compression.min-size:1KB}") DataSize minSize) {
+        this.enabled = enabled;
+        this.minBytes = minSize.toBytes();
+    }
+
+    public String encode(String content) {
+        if (content == null)
+            return null;
+        if (enabled && content.length() * 3L >= minBytes) {
+            byte[] utf8 = content.getBytes(StandardCharsets.UTF_8);
+            if (utf8.length >= minBytes) {
+                LZ4Compressor compressor = LZ4_FACTORY.fastCompressor();
+                byte[] packed = new byte[4 + compressor.maxCompressedLength(utf8.length)];
+                ByteBuffer.wrap(packed).putInt(utf8.length);
+                int length = 4 + compressor.compress(utf8, 0, utf8.length, packed, 4, packed.length - 4);
+                if (2 + (length + 2) / 3 * 4 < utf8.length)
+                    return MARKER + String.valueOf(LZ4) + Base64.getEncoder().encodeToString(Arrays.copyOf(packed, length));
+            }
+        }
+        return content.isEmpty() || content.charAt(0) != MARKER ? content : MARKER + String.valueOf(RAW) + content;
+    }
+
+    public String decode(String stored) {
+        if (stored == null || stored.isEmpty() || stored.charAt(0) != MARKER)
+            return stored;
+        return switch (stored.length() > 1 ? stored.charAt(1) : ' ') {
+            case RAW -> stored.substring(2);
+            case LZ4 -> {
+                byte[] packed = Base64.getDecoder().decode(stored.substring(2));
+                byte[] utf8 = new byte[ByteBuffer.wrap(packed).getInt()];
+                LZ4_FACTORY.safeDecompressor().decompress(packed, 4, packed.length - 4, utf8, 0);
+                yield new String(utf8, StandardCharsets.UTF_8);
+            }
+            // A row from before this codec that happened to start with the marker
+            default -> stored;
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.blogapplication.util;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+
+/**
+ * Hibernate statistics for one persistence unit that also report each prepared statement and
+ * entity load to the current {@link RequestQueryCounter} scope. Installed through
+ * {@code hibernate.stats.factory} by {@code UserDBConfig} and {@code BlogDBConfig}.
+ */
+public class CountingStatistics extends StatisticsImpl {
+
+    private final String unit;
+
+    public CountingStatistics(SessionFactoryImplementor sessionFactory, String unit) {
+        super(sessionFactory);
+        this.unit = unit;
+    }
+
+    @Override
+    public void prepareStatement() {
+        super.prepareStatement();
+        RequestQueryCounter.statement(unit);
+    }
+
+    @Override
+    public void loadEntity(String entityName) {
+        super.loadEntity(entityName);
+        RequestQueryCounter.entityLoad();
+    }
+
+    @Override
+    public void fetchEntity(String entityName) {
+        super.fetchEntity(entityName);
+        RequestQueryCounter.entityLoad();
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.blogapplication.util;
+
+import com.example.blogapplication.exceptions.DependencyUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A data source whose connections are handed out only while the database's circuit breaker lets calls through and
+ * its bulkhead has room; otherwise getConnection fails at once with {@link DependencyUnavailableException} instead
+ * of queueing on the pool. A bulkhead permit is held for as long as the connection is, and the borrow counts as one
+ * call for the breaker: failed if getting the connection or any statement on it failed on a timeout or a broken
+ * connection. Constraint violations and other SQL errors are the caller's problem and do not trip the breaker.
+ */
+public class GuardedDataSource extends DelegatingDataSource {
+
+    private final Supplier<CircuitBreaker> circuitBreaker;
+    private final Supplier<Bulkhead> bulkhead;
+
+    // Suppliers: the registries are beans, created after this data source has been post-processed
+    public GuardedDataSource(DataSource target, Supplier<CircuitBreaker> circuitBreaker, Supplier<Bulkhead> bulkhead) {
+        super(target);
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return guard(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return guard(() -> super.getConnection(username, password));
+    }
+
+    private interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+
+    private Connection guard(ConnectionSource source) throws SQLException {
+        CircuitBreaker breaker = circuitBreaker.get();
+        Bulkhead bulkhead = this.bulkhead.get();
+        if (!breaker.tryAcquirePermission())
+            throw new DependencyUnavailableException(breaker.getName(), "circuit breaker " + breaker.getState());
+        if (!bulkhead.tryAcquirePermission()) {
+            breaker.releasePermission();
+            throw new DependencyUnavailableException(breaker.getName(), "bulkhead full");
+        }
+        long start = System.nanoTime();
+        try {
+            Connection connection = source.get();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    new Borrow(connection, breaker, bulkhead, start));
+        } catch (SQLException | RuntimeException e) {
+            bulkhead.onComplete();
+            breaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            throw e;
+        }
+    }
+
+    static boolean isOutage(Throwable e) {
+        return e instanceof SQLTimeoutException || e instanceof SQLTransientConnectionException
+                || e instanceof SQLNonTransientConnectionException || e instanceof SQLRecoverableException
+                || (e instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08"));
+    }
+
+    private static final class Borrow implements InvocationHandler {
+
+        private final Connection connection;
+        private final CircuitBreaker breaker;
+        private final Bulkhead bulkhead;
+        private final long start;
+        private volatile Throwable outage;
+        private boolean closed;
+
+        Borrow(Connection connection, CircuitBreaker breaker, Bulkhead bulkhead, long start) {
+            this.connection = connection;
+            this.breaker = breaker;
+            this.bulkhead = bulkhead;
+            this.start = start;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    return close();
+                }
+                case "unwrap" -> {
+                    if (((Class<?>) args[0]).isInstance(proxy))
+                        return proxy;
+                }
+                case "isWrapperFor" -> {
+                    if (((Class<?>) args[0]).isInstance(proxy))
+                        return true;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                }
+            }
+            Object result = call(connection, method, args);
+            if (result instanceof Statement statement) {
+                Class<?>[] interfaces = method.getReturnType().isInterface() ? new Class<?>[]{method.getReturnType()} : new Class<?>[]{Statement.class};
+                return Proxy.newProxyInstance(GuardedDataSource.class.getClassLoader(), interfaces,
+                        (statementProxy, statementMethod, statementArgs) -> call(statement, statementMethod, statementArgs));
+            }
+            return result;
+        }
+
+        private Object call(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                if (isOutage(e.getCause()))
+                    outage = e.getCause();
+                throw e.getCause();
+            }
+        }
+
+        private synchronized Object close() throws SQLException {
+            if (closed)
+                return null;
+            closed = true;
+            try {
+                connection.close();
+            } finally {
+                bulkhead.onComplete();
+                long elapsed = System.nanoTime() - start;
+                if (outage != null)
+                    breaker.onError(elapsed, TimeUnit.NANOSECONDS, outage);
+                else
+                    breaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.blogapplication.util;
+
+import com.example.blogapplication.services.IdempotencyStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * {@code Idempotency-Key} support for writes: a retried POST/PUT/PATCH/DELETE carrying the same key (per caller) gets
+ * the first attempt's response back instead of running again; one with the same key but a different method, path,
+ * query or body gets 422. Runs after the security chain so keys of different users never meet.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Set<String> WRITES = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    // Multipart bodies are parsed by the container from the raw stream, so uploads are not replayable this way
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return request.getHeader(IDEMPOTENCY_KEY_HEADER) == null || !WRITES.contains(request.getMethod())
+                || (contentType != null && contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (header.isBlank() || header.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), IDEMPOTENCY_KEY_HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        // Form posts are fingerprinted by their parameters: the container parses those from the stream itself
+        String contentType = request.getContentType();
+        boolean form = contentType != null && contentType.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE);
+        byte[] body = form ? parameters(request) : request.getInputStream().readAllBytes();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String caller = authentication != null ? authentication.getName() : "";
+        String key = sha256(caller.getBytes(StandardCharsets.UTF_8), header.getBytes(StandardCharsets.UTF_8));
+        String fingerprint = sha256(request.getMethod().getBytes(StandardCharsets.UTF_8), request.getRequestURI().getBytes(StandardCharsets.UTF_8),
+                String.valueOf(request.getQueryString()).getBytes(StandardCharsets.UTF_8), body);
+
+        IdempotencyStore.Claim claim = idempotencyStore.claim(key, fingerprint);
+        switch (claim.outcome()) {
+            case REPLAY -> {
+                IdempotencyStore.Response stored = claim.response();
+                response.setStatus(stored.status());
+                if (stored.contentType() != null)
+                    response.setContentType(stored.contentType());
+                response.setHeader(REPLAYED_HEADER, "true");
+                response.getOutputStream().write(stored.body());
+            }
+            case MISMATCH -> response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                    IDEMPOTENCY_KEY_HEADER + " was already used for a different request");
+            case IN_PROGRESS -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpStatus.CONFLICT.value(), "A request with this " + IDEMPOTENCY_KEY_HEADER + " is still in progress");
+            }
+            case EXECUTE -> execute(form ? request : new CachedBodyRequest(request, body), response, filterChain, key, claim);
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         String key, IdempotencyStore.Claim claim) throws ServletException, IOException {
+        ContentCachingResponseWrapper captured = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, captured);
+        } catch (ServletException | IOException | RuntimeException e) {
+            idempotencyStore.abandon(key, claim);
+            throw e;
+        }
+        idempotencyStore.complete(key, claim, new IdempotencyStore.Response(captured.getStatus(), captured.getContentType(), captured.getContentAsByteArray()));
+        captured.copyBodyToResponse();
+    }
+
+    private static byte[] parameters(HttpServletRequest request) {
+        StringBuilder encoded = new StringBuilder();
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet())
+            for (String value : parameter.getValue())
+                encoded.append(parameter.getKey().length()).append(':').append(parameter.getKey())
+                        .append(value.length()).append(':').append(value);
+        return encoded.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String sha256(byte[]... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (byte[] part : parts) {
+                digest.update(Integer.toString(part.length).getBytes(StandardCharsets.US_ASCII));
+                digest.update((byte) ':');
+                digest.update(part);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // The body was read for the fingerprint; the handler reads it again from here
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is already in memory: available at once, and all read once the listener has taken it
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished())
+                            readListener.onDataAvailable();
+                        if (isFinished())
+                            readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
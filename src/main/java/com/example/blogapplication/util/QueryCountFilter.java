@@ -0,0 +1,91 @@
+package com.example.blogapplication.util;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the queries each request sends to user_db and blog_db (including the user lookup done by
+ * {@link RouteFilter}), records them as metrics and, outside prod, returns them as response headers.
+ * Requests over {@code blog.query-count.warn-threshold} are logged as likely N+1s.
+ */
+@Slf4j
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String QUERY_COUNT_BY_UNIT_HEADER = "X-Query-Count-By-Unit";
+    public static final String ENTITY_LOAD_COUNT_HEADER = "X-Entity-Load-Count";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${blog.query-count.headers:false}")
+    private boolean headers;
+
+    @Value("${blog.query-count.warn-threshold:20}")
+    private int warnThreshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        RequestQueryCounter.Counts counts = RequestQueryCounter.open();
+        HttpServletResponse target = response;
+        if (headers) {
+            target = new OnCommittedResponseWrapper(response) {
+                @Override
+                protected void onResponseCommitted() {
+                    writeHeaders(response, counts);
+                }
+            };
+        }
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            RequestQueryCounter.close(counts);
+            if (headers && !response.isCommitted()) {
+                writeHeaders(response, counts);
+            }
+            record(request, counts);
+        }
+    }
+
+    private void writeHeaders(HttpServletResponse response, RequestQueryCounter.Counts counts) {
+        response.setHeader(QUERY_COUNT_HEADER, String.valueOf(counts.getQueries()));
+        response.setHeader(ENTITY_LOAD_COUNT_HEADER, String.valueOf(counts.getEntityLoads()));
+        if (!counts.getQueriesByUnit().isEmpty()) {
+            StringBuilder byUnit = new StringBuilder();
+            counts.getQueriesByUnit().forEach((unit, n) -> byUnit.append(byUnit.isEmpty() ? "" : ", ").append(unit).append('=').append(n));
+            response.setHeader(QUERY_COUNT_BY_UNIT_HEADER, byUnit.toString());
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestQueryCounter.Counts counts) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("blog.request.queries").description("JDBC statements per request, both persistence units")
+                .tag("uri", uri).register(meterRegistry).record(counts.getQueries());
+        DistributionSummary.builder("blog.request.entity.loads").description("Entities loaded or fetched per request")
+                .tag("uri", uri).register(meterRegistry).record(counts.getEntityLoads());
+
+        if (counts.getQueries() > warnThreshold) {
+            meterRegistry.counter("blog.request.query.budget.exceeded", "uri", uri).increment();
+            log.warn("{} {} issued {} (threshold {}), possible N+1", request.getMethod(), request.getRequestURI(), counts, warnThreshold);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.blogapplication.util;
+
+import com.example.blogapplication.exceptions.DependencyUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import io.r2dbc.spi.R2dbcTransientResourceException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The reactive counterpart of {@link GuardedDataSource}: an R2DBC query is subscribed only while the database's
+ * circuit breaker lets calls through and its bulkhead has room, and otherwise fails at once with
+ * {@link DependencyUnavailableException}. The permit is held until the query completes, errors or is cancelled,
+ * and the query counts as one call for the breaker: failed if it ended on a timeout or a broken connection. A full
+ * bulkhead is waited on (its max-wait) off the calling thread, which may be an R2DBC event loop.
+ */
+public class ReactiveGuard {
+
+    private final CircuitBreaker breaker;
+    private final Bulkhead bulkhead;
+
+    public ReactiveGuard(CircuitBreaker breaker, Bulkhead bulkhead) {
+        this.breaker = breaker;
+        this.bulkhead = bulkhead;
+    }
+
+    public <T> Flux<T> flux(Flux<T> query) {
+        return Flux.usingWhen(acquire(), permit -> query, permit -> permit.release(null), Permit::release,
+                permit -> permit.release(null));
+    }
+
+    public <T> Mono<T> mono(Mono<T> query) {
+        return Mono.usingWhen(acquire(), permit -> query, permit -> permit.release(null), Permit::release,
+                permit -> permit.release(null));
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.defer(() -> {
+            if (!breaker.tryAcquirePermission())
+                return Mono.error(new DependencyUnavailableException(breaker.getName(), "circuit breaker " + breaker.getState()));
+            Mono<Boolean> admitted = Mono.fromCallable(bulkhead::tryAcquirePermission);
+            if (bulkhead.getMetrics().getAvailableConcurrentCalls() == 0)
+                admitted = admitted.subscribeOn(Schedulers.boundedElastic());
+            return admitted.flatMap(ok -> {
+                if (ok)
+                    return Mono.just(new Permit(System.nanoTime()));
+                breaker.releasePermission();
+                return Mono.error(new DependencyUnavailableException(breaker.getName(), "bulkhead full"));
+            });
+        });
+    }
+
+    static boolean isOutage(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause())
+            if (cause instanceof R2dbcTimeoutException || cause instanceof R2dbcTransientResourceException
+                    || cause instanceof R2dbcNonTransientResourceException || cause instanceof TimeoutException
+                    || cause instanceof IOException || GuardedDataSource.isOutage(cause))
+                return true;
+        return false;
+    }
+
+    private final class Permit {
+
+        private final long start;
+
+        Permit(long start) {
+            this.start = start;
+        }
+
+        Mono<Void> release(Throwable error) {
+            return Mono.fromRunnable(() -> {
+                bulkhead.onComplete();
+                long elapsed = System.nanoTime() - start;
+                if (error != null && isOutage(error))
+                    breaker.onError(elapsed, TimeUnit.NANOSECONDS, error);
+                else
+                    breaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+            });
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.blogapplication.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Thread-bound tally of the JDBC statements and entity loads issued by both persistence units.
+ * Fed by {@link CountingStatistics}; a scope is opened per request by {@link QueryCountFilter}
+ * (and by tests). Scopes nest: a statement counts towards every open scope on the thread.
+ */
+public final class RequestQueryCounter {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    private RequestQueryCounter() {
+    }
+
+    public static Counts open() {
+        Counts counts = new Counts(CURRENT.get());
+        CURRENT.set(counts);
+        return counts;
+    }
+
+    public static void close(Counts counts) {
+        if (counts.parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(counts.parent);
+        }
+    }
+
+    static void statement(String unit) {
+        for (Counts c = CURRENT.get(); c != null; c = c.parent) {
+            c.queries++;
+            c.queriesByUnit.merge(unit, 1, Integer::sum);
+        }
+    }
+
+    static void entityLoad() {
+        for (Counts c = CURRENT.get(); c != null; c = c.parent) {
+            c.entityLoads++;
+        }
+    }
+
+    public static final class Counts {
+        private final Counts parent;
+        private final Map<String, Integer> queriesByUnit = new TreeMap<>();
+        private int queries;
+        private int entityLoads;
+
+        private Counts(Counts parent) {
+            this.parent = parent;
+        }
+
+        public int getQueries() {
+            return queries;
+        }
+
+        public int getEntityLoads() {
+            return entityLoads;
+        }
+
+        public Map<String, Integer> getQueriesByUnit() {
+            return queriesByUnit;
+        }
+
+        @Override
+        public String toString() {
+            return queries + " queries " + queriesByUnit + ", " + entityLoads + " entity loads";
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.example.blogapplication.util;
 
 import com.example.blogapplication.services.JWTService;
 import com.example.blogapplication.services.user.UserService;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,12 +25,26 @@ public class RouteFilter extends OncePerRequestFilter {
     UserService userService;
     @Autowired
     JWTService jwtService;
+    @Autowired
+    ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        // Own span for token parsing + the user_db lookup, so slow auth is visible apart from the handler
+        Observation observation = Observation.createNotStarted("blog.auth", observationRegistry).contextualName("jwt-auth").start();
+        try (Observation.Scope scope = observation.openScope()) {
+            observation.lowCardinalityKeyValue("outcome", authenticate(request));
+        } catch (RuntimeException e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
 
+        filterChain.doFilter(request, response);
+    }
 
-
+    private String authenticate(HttpServletRequest request) {
         String token = null;
         String username = null;
 
@@ -45,9 +61,10 @@ public class RouteFilter extends OncePerRequestFilter {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+                return "authenticated";
             }
+            return "rejected";
         }
-
-        filterChain.doFilter(request, response);
+        return "anonymous";
     }
 }
@@ -0,0 +1,39 @@
+package com.example.blogapplication.util;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Observes BCrypt hashing (register, reset-password) and verification (login): a timer plus,
+ * when tracing is on, a span under the current request.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ObservationRegistry observationRegistry;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, ObservationRegistry observationRegistry){
+        this.delegate=delegate;
+        this.observationRegistry=observationRegistry;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return Observation.createNotStarted("blog.password.encode", observationRegistry)
+                .contextualName("bcrypt-encode")
+                .observe(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return Observation.createNotStarted("blog.password.matches", observationRegistry)
+                .contextualName("bcrypt-matches")
+                .observe(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
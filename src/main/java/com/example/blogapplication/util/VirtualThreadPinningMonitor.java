@@ -0,0 +1,68 @@
+package com.example.blogapplication.util;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Streams JFR {@code jdk.VirtualThreadPinned} events while virtual threads are enabled and logs
+ * where the pinning happened. A virtual thread blocking inside a {@code synchronized} section
+ * (ours or a driver's) holds its carrier thread, which quietly turns the mode back into a
+ * fixed-size platform pool.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final int LOGGED_FRAMES = 8;
+
+    @Value("${blog.virtual-threads.pinned-threshold:20ms}")
+    private Duration threshold;
+
+    private RecordingStream stream;
+
+    @Override
+    public synchronized void start() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::logPinned);
+        stream.startAsync();
+    }
+
+    private void logPinned(RecordedEvent event) {
+        String frames = "";
+        if (event.getStackTrace() != null) {
+            List<RecordedFrame> top = event.getStackTrace().getFrames();
+            frames = top.subList(0, Math.min(LOGGED_FRAMES, top.size())).stream()
+                    .map(frame -> "\n\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                            + ":" + frame.getLineNumber())
+                    .collect(Collectors.joining());
+        }
+        log.warn("Virtual thread pinned for {} ms on {}{}", event.getDuration().toMillis(),
+                event.getThread() != null ? event.getThread().getJavaName() : "unknown thread", frames);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return stream != null;
+    }
+}
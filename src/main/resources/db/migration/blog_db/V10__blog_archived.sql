@@ -0,0 +1,2 @@
+-- Set by BlogArchive when a post's content and content_html have moved to an archive segment (both NULL here)
+ALTER TABLE blogs ADD COLUMN archived BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,13 @@
+-- One row per committed mutation, read by every node's ChangeLog poller to invalidate its in-process caches.
+-- seq is assigned at insert, not commit, so pollers re-check gaps for a while before skipping them; rows are pruned after blog.change-log.retention
+CREATE TABLE change_log (
+    seq        BIGINT NOT NULL AUTO_INCREMENT,
+    entity     VARCHAR(32) NOT NULL,
+    entity_key VARCHAR(255) NOT NULL,
+    op         CHAR(1) NOT NULL,
+    origin     VARCHAR(64) NOT NULL,
+    changed_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (seq)
+) ENGINE = InnoDB;
+
+CREATE INDEX ix_change_log_changed_at ON change_log (changed_at);
@@ -0,0 +1,13 @@
+-- Idempotency-Key replays. A row is claimed (status NULL) before the request runs and completed with its response;
+-- the key is a hash of the caller and their header value. Expired rows are purged by IdempotencyStore
+CREATE TABLE idempotency_keys (
+    idem_key     CHAR(64) NOT NULL,
+    fingerprint  CHAR(64) NOT NULL,
+    status       SMALLINT NULL,
+    content_type VARCHAR(255) NULL,
+    body         MEDIUMBLOB NULL,
+    expires_at   DATETIME(6) NOT NULL,
+    PRIMARY KEY (idem_key)
+) ENGINE = InnoDB;
+
+CREATE INDEX ix_idempotency_keys_expires_at ON idempotency_keys (expires_at);
@@ -0,0 +1,3 @@
+-- Same room as blogs.content (V9): the rendered HTML and a full revision snapshot are at least as long as the post
+ALTER TABLE blogs MODIFY content_html MEDIUMTEXT;
+ALTER TABLE blog_revisions MODIFY body MEDIUMTEXT NOT NULL;
@@ -0,0 +1,3 @@
+-- When the running claim was taken: an unanswered claim older than blog.idempotency.lease belonged to a node that
+-- died mid-request and may be taken over. Rows claimed before this column existed count as lapsed
+ALTER TABLE idempotency_keys ADD COLUMN claimed_at DATETIME(6) NULL;
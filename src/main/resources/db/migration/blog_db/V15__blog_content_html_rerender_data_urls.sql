@@ -0,0 +1,2 @@
+-- HTML rendered while data: link and image targets still passed the sanitiser; rendered again on the next read
+UPDATE blogs SET content_html = NULL WHERE content_html LIKE '%="data:%';
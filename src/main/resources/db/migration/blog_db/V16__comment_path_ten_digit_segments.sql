@@ -0,0 +1,5 @@
+-- Path segments widen from 8 to 10 digits, enough for any INTEGER id, so ids from 100,000,000 on still sort after
+-- smaller ones. Existing 8- and 9-digit segments are left-padded in place; at MAX_DEPTH (16) levels of 11
+-- characters a path still fits the VARCHAR(255) column
+UPDATE comments SET path = REGEXP_REPLACE(path, '(?<![0-9])([0-9]{8}/)', '00$1');
+UPDATE comments SET path = REGEXP_REPLACE(path, '(?<![0-9])([0-9]{9}/)', '0$1');
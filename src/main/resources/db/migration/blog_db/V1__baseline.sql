@@ -0,0 +1,10 @@
+-- Schema as previously created by hbm2ddl; skipped on databases that already have it (baselineOnMigrate)
+CREATE TABLE IF NOT EXISTS blogs (
+    id         INTEGER NOT NULL AUTO_INCREMENT,
+    author     VARCHAR(255),
+    content    VARCHAR(255),
+    created_at DATETIME(6),
+    title      VARCHAR(255),
+    updatedAt  DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
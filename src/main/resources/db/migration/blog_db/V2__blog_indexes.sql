@@ -0,0 +1,2 @@
+-- Newest-first listings page on (created_at, id)
+CREATE INDEX ix_blogs_created_at_id ON blogs (created_at, id);
@@ -0,0 +1,19 @@
+-- Threaded comments. path = fixed-width ids of the ancestors and the comment itself ("00000012/00000045/"),
+-- so a whole thread or any subtree is one range scan on (blog_id, path), already in display order
+CREATE TABLE comments (
+    id          INTEGER NOT NULL AUTO_INCREMENT,
+    blog_id     INTEGER NOT NULL,
+    parent_id   INTEGER,
+    path        VARCHAR(255) NOT NULL,
+    depth       INTEGER NOT NULL,
+    reply_count INTEGER NOT NULL DEFAULT 0,
+    author      VARCHAR(255) NOT NULL,
+    content     VARCHAR(2000) NOT NULL,
+    created_at  DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_comments_blog FOREIGN KEY (blog_id) REFERENCES blogs (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
+
+CREATE INDEX ix_comments_blog_path ON comments (blog_id, path);
+-- Keyset pages of top-level comments
+CREATE INDEX ix_comments_blog_depth_id ON comments (blog_id, depth, id);
@@ -0,0 +1,7 @@
+-- Tags of a blog (BlogEntity.tags). Multi-tag filtering is answered by the in-memory TagIndex, not by joins here
+CREATE TABLE blog_tags (
+    blog_id INTEGER NOT NULL,
+    tag     VARCHAR(32) NOT NULL,
+    PRIMARY KEY (blog_id, tag),
+    CONSTRAINT fk_blog_tags_blog FOREIGN KEY (blog_id) REFERENCES blogs (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
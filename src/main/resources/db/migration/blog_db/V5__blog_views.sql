@@ -0,0 +1,7 @@
+-- View counts, kept out of blogs so counting never locks blog rows. Written only by ViewCounter's batched upsert
+CREATE TABLE blog_views (
+    blog_id INTEGER NOT NULL,
+    views   BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (blog_id),
+    CONSTRAINT fk_blog_views_blog FOREIGN KEY (blog_id) REFERENCES blogs (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
@@ -0,0 +1,2 @@
+-- URL of the post's image in the content-addressed media store (/media/<sha-256>.<ext>)
+ALTER TABLE blogs ADD COLUMN image VARCHAR(255);
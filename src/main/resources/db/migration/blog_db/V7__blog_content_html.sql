@@ -0,0 +1,2 @@
+-- Sanitised HTML rendered from the Markdown in content (second tier behind MarkdownRenderer's cache)
+ALTER TABLE blogs ADD COLUMN content_html TEXT;
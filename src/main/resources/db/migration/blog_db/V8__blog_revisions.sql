@@ -0,0 +1,16 @@
+-- Edit history. A snapshot row holds the full content; the rows after it hold line deltas against the previous
+-- revision, so any revision is rebuilt from the nearest snapshot at or before it plus at most one interval of deltas
+CREATE TABLE blog_revisions (
+    id         INTEGER NOT NULL AUTO_INCREMENT,
+    blog_id    INTEGER NOT NULL,
+    revision   INTEGER NOT NULL,
+    snapshot   BOOLEAN NOT NULL,
+    title      VARCHAR(255),
+    author     VARCHAR(255),
+    body       TEXT NOT NULL,
+    created_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_blog_revisions_blog FOREIGN KEY (blog_id) REFERENCES blogs (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
+
+CREATE UNIQUE INDEX ux_blog_revisions_blog_revision ON blog_revisions (blog_id, revision);
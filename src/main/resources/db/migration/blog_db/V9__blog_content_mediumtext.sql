@@ -0,0 +1,2 @@
+-- Room for long-form posts; values may also be LZ4-compressed by ContentCodec (a header marks those, plain rows read as-is)
+ALTER TABLE blogs MODIFY content MEDIUMTEXT;
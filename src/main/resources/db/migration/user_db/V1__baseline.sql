@@ -0,0 +1,9 @@
+-- Schema as previously created by hbm2ddl; skipped on databases that already have it (baselineOnMigrate)
+CREATE TABLE IF NOT EXISTS users (
+    id         INTEGER NOT NULL AUTO_INCREMENT,
+    email      VARCHAR(255),
+    name       VARCHAR(255),
+    password   VARCHAR(255),
+    resetToken VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
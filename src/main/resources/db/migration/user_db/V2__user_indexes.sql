@@ -0,0 +1,5 @@
+-- findByEmail runs on every authenticated request and on register/login
+CREATE UNIQUE INDEX ux_users_email ON users (email);
+
+-- Lookups of outstanding password-reset tokens
+CREATE INDEX ix_users_reset_token ON users (resetToken);
@@ -0,0 +1,54 @@
+package com.example.blogapplication.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Actuator on its own port as in prod
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class ActuatorSecurityTests {
+
+    @LocalServerPort
+    private int port;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @AfterEach
+    void close() {
+        client.shutdownNow();
+    }
+
+    @Test
+    void metricsAreScrapedOnlyOnTheManagementPort() throws Exception {
+        HttpResponse<String> scraped = get(managementPort, "/actuator/prometheus");
+        assertEquals(200, scraped.statusCode());
+        assertTrue(scraped.body().contains("hikaricp_connections"), "no pool metrics in the scrape");
+
+        assertEquals(401, get(port, "/actuator/prometheus").statusCode());
+        // Open too, though DOWN here: there is no mail server
+        assertNotEquals(401, get(managementPort, "/actuator/health").statusCode());
+    }
+
+    private HttpResponse<String> get(int port, String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.blogapplication.controller;
+
+import com.example.blogapplication.db2.entities.BlogEntity;
+import com.example.blogapplication.exceptions.ArchivedContentUnavailableException;
+import com.example.blogapplication.services.archive.BlogArchive;
+import com.example.blogapplication.services.blog.BlogService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ArchiveTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BlogService blogService;
+
+    @Autowired
+    private BlogArchive blogArchive;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ArchiveTests(@Qualifier("blogDataSource") DataSource blogDataSource) {
+        this.jdbcTemplate = new JdbcTemplate(blogDataSource);
+    }
+
+    @Test
+    void coldPostsMoveToTheArchiveAndReadTransparently() throws Exception {
+        // More than one sparse-index interval, so lookups have to seek within the segment
+        List<Integer> cold = new ArrayList<>();
+        for (int i = 0; i < 70; i++)
+            cold.add(insert("Cold post " + i, "2019-01-01 10:00:00"));
+        int recent = insert("Recent post", "2099-01-01 10:00:00");
+
+        assertTrue(blogArchive.archiveColdPosts() >= 70);
+        Map<String, Object> stub = jdbcTemplate.queryForMap("SELECT content, content_html, archived FROM blogs WHERE id = ?", cold.get(41));
+        assertNull(stub.get("content"));
+        assertNull(stub.get("content_html"));
+        assertEquals(true, stub.get("archived"));
+        assertFalse(jdbcTemplate.queryForObject("SELECT archived FROM blogs WHERE id = ?", Boolean.class, recent));
+
+        for (int i : new int[]{0, 31, 32, 41, 69})
+            assertEquals("Body of Cold post " + i, blogService.findById(cold.get(i)).orElseThrow().getContent());
+        MvcResult pending = mockMvc.perform(get("/api/posts/{id}", cold.get(5))).andReturn();
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").value("Body of Cold post 5"))
+                .andExpect(jsonPath("$.contentHtml").value("<p>Body of Cold post 5</p>\n"));
+
+        // Editing brings the content back into the row
+        BlogEntity edit = new BlogEntity();
+        edit.setTitle("Cold post, edited");
+        edit.setContent("A fresh body for an old post");
+        edit.setAuthor("ada");
+        blogService.updateBlog(cold.get(1), edit);
+        assertEquals("A fresh body for an old post", storedContent(cold.get(1)));
+
+        assertEquals(1, blogArchive.restore(List.of(cold.get(2), cold.get(1))));
+        assertEquals("Body of Cold post 2", storedContent(cold.get(2)));
+        assertTrue(blogArchive.restoreAll() >= 67);
+        assertEquals("Body of Cold post 69", storedContent(cold.get(69)));
+    }
+
+    @Test
+    void stubMissingFromEveryVisibleSegmentFailsTheRead() throws Exception {
+        int id = insert("Archived somewhere else", "2019-01-01 10:00:00");
+        jdbcTemplate.update("UPDATE blogs SET content = NULL, content_html = NULL, archived = TRUE WHERE id = ?", id);
+        try {
+            assertThrows(ArchivedContentUnavailableException.class, () -> blogService.findById(id));
+            MvcResult pending = mockMvc.perform(get("/api/posts/{id}", id)).andReturn();
+            mockMvc.perform(asyncDispatch(pending)).andExpect(status().isServiceUnavailable());
+        } finally {
+            jdbcTemplate.update("DELETE FROM blogs WHERE id = ?", id);
+        }
+    }
+
+    private int insert(String title, String createdAt) {
+        jdbcTemplate.update("INSERT INTO blogs (title, content, content_html, author, created_at) VALUES (?, ?, ?, 'ada', ?)",
+                title, "Body of " + title, "<p>Body of " + title + "</p>\n", createdAt);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM blogs", Integer.class);
+    }
+
+    private String storedContent(int id) {
+        return jdbcTemplate.queryForObject("SELECT content FROM blogs WHERE id = ? AND archived = FALSE", String.class, id);
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.blogapplication.controller;
+
+import com.example.blogapplication.BlogApplication;
+import com.example.blogapplication.db1.entities.UserEntity;
+import com.example.blogapplication.db2.entities.BlogEntity;
+import com.example.blogapplication.services.archive.BlogArchive;
+import com.example.blogapplication.services.blog.BlogService;
+import com.example.blogapplication.services.blog.FeedService;
+import com.example.blogapplication.services.blog.TagIndex;
+import com.example.blogapplication.services.user.UserService;
+import com.example.blogapplication.util.ChangeLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringApplicationHook;
+import org.springframework.boot.SpringApplicationRunListener;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// This context is node A; node B is a second application context in the same JVM on the same in-memory databases
+// and the same archive root
+@SpringBootTest(properties = "blog.change-log.poll-interval=1h")
+@ActiveProfiles("test")
+class ChangeLogTests {
+
+    private static final List<String> TAG = List.of("cluster-sync");
+    private static final String ARCHIVE_ROOT = "target/test-archive/cluster-" + UUID.randomUUID();
+
+    private static ConfigurableApplicationContext nodeB;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TagIndex tagIndex;
+
+    @Autowired
+    @Qualifier("userChangeLog")
+    private ChangeLog userChangeLog;
+
+    @Autowired
+    @Qualifier("blogChangeLog")
+    private ChangeLog blogChangeLog;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BlogService blogService;
+
+    @Autowired
+    private BlogArchive blogArchive;
+
+    @DynamicPropertySource
+    static void sharedArchive(DynamicPropertyRegistry registry) {
+        registry.add("blog.archive.root", () -> ARCHIVE_ROOT);
+    }
+
+    @BeforeAll
+    static void startNodeB() {
+        nodeB = new SpringApplicationBuilder(BlogApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "blog.change-log.poll-interval=1h")
+                .run("--blog.archive.root=" + ARCHIVE_ROOT);
+    }
+
+    @AfterAll
+    static void stopNodeB() {
+        nodeB.close();
+    }
+
+    @Test
+    void userChangesOnAnotherNodeInvalidateTheCachedUser() {
+        UserEntity user = new UserEntity();
+        user.setName("Grace");
+        user.setEmail("grace@cluster.test");
+        user.setPassword("Secret@123");
+        user.setConfirmpassword("Secret@123");
+        assertTrue(userService.saveUser(user));
+        String original = userService.loadUserByUsername("grace@cluster.test").getPassword();
+
+        // A password change committed by node B
+        ChangeLog userLogOnB = nodeB.getBean("userChangeLog", ChangeLog.class);
+        String changed = nodeB.getBean(PasswordEncoder.class).encode("Changed@123");
+        new TransactionTemplate(nodeB.getBean("userTransactionManager", PlatformTransactionManager.class)).executeWithoutResult(status -> {
+            new JdbcTemplate(nodeB.getBean("userDataSource", DataSource.class))
+                    .update("UPDATE users SET password = ? WHERE email = ?", changed, "grace@cluster.test");
+            userLogOnB.record(UserService.ENTITY, "grace@cluster.test", ChangeLog.Op.UPDATED);
+        });
+
+        // Cached on A until its poller sees B's change
+        assertEquals(original, userService.loadUserByUsername("grace@cluster.test").getPassword());
+        userChangeLog.poll();
+        assertEquals(changed, userService.loadUserByUsername("grace@cluster.test").getPassword());
+        assertTrue(meterRegistry.get("blog.change-log.lag").tag("unit", "user_db").timer().count() >= 1);
+    }
+
+    @Test
+    void blogChangesOnAnotherNodeReachTheLocalTagIndex() {
+        BlogService onB = nodeB.getBean(BlogService.class);
+        BlogEntity blog = new BlogEntity();
+        blog.setTitle("Written on node B");
+        blog.setContent("Content that only node B has indexed so far.");
+        blog.setAuthor("ada");
+        blog.setTags(Set.of(TAG.get(0)));
+        onB.addBlog(blog);
+
+        assertEquals(List.of(), tagIndex.newest(TAG, List.of(), Integer.MAX_VALUE, 10));
+        blogChangeLog.poll();
+        assertEquals(List.of(blog.getId()), tagIndex.newest(TAG, List.of(), Integer.MAX_VALUE, 10));
+
+        assertTrue(onB.deleteBlog(blog.getId()));
+        blogChangeLog.poll();
+        assertEquals(List.of(), tagIndex.newest(TAG, List.of(), Integer.MAX_VALUE, 10));
+    }
+
+    @Test
+    void postsArchivedByOneNodeAreServedFromTheSharedRootOnAnother() {
+        BlogEntity blog = new BlogEntity();
+        blog.setTitle("Archived on node A");
+        blog.setContent("Content that moves to an archive segment.");
+        blog.setAuthor("ada");
+        blogService.addBlog(blog);
+        new JdbcTemplate(nodeB.getBean("blogDataSource", DataSource.class))
+                .update("UPDATE blogs SET created_at = '2019-01-01 10:00:00' WHERE id = ?", blog.getId());
+        ChangeLog blogLogOnB = nodeB.getBean("blogChangeLog", ChangeLog.class);
+        FeedService feedsOnB = nodeB.getBean(FeedService.class);
+        blogLogOnB.poll();
+        assertTrue(new String(feedsOnB.rss().body(), StandardCharsets.UTF_8).contains("moves to an archive segment"));
+
+        try {
+            assertTrue(blogArchive.archiveColdPosts() >= 1);
+            // B opened the root before this segment existed, and re-renders its feeds from the ARCHIVED change
+            assertEquals("Content that moves to an archive segment.",
+                    nodeB.getBean(BlogService.class).findById(blog.getId()).orElseThrow().getContent());
+            blogLogOnB.poll();
+            assertTrue(new String(feedsOnB.rss().body(), StandardCharsets.UTF_8).contains("moves to an archive segment"));
+        } finally {
+            blogArchive.restoreAll();
+        }
+    }
+
+    @Test
+    void theCdsTrainingRunRefreshesWithoutADatabase() {
+        // The Dockerfile run exits once the context has refreshed, before it is ready; stop at the same point
+        SpringApplicationHook exitOnRefresh = application -> new SpringApplicationRunListener() {
+            @Override
+            public void started(ConfigurableApplicationContext context, Duration timeTaken) {
+                throw new SpringApplication.AbandonedRunException(context);
+            }
+        };
+        SpringApplication.AbandonedRunException exited = assertThrows(SpringApplication.AbandonedRunException.class,
+                () -> SpringApplication.withHook(exitOnRefresh, () -> new SpringApplicationBuilder(BlogApplication.class)
+                        .run("--spring.profiles.active=prod,cds-training", "--server.port=0", "--management.server.port=0",
+                                "--spring.user.datasource.jdbc-url=jdbc:mysql://127.0.0.1:1/user_db",
+                                "--spring.blog.datasource.jdbc-url=jdbc:mysql://127.0.0.1:1/blog_db",
+                                "--spring.r2dbc.url=r2dbc:mysql://127.0.0.1:1/blog_db",
+                                "--blog.archive.root=" + ARCHIVE_ROOT + "-training")));
+        try (ConfigurableApplicationContext context = exited.getApplicationContext()) {
+            assertTrue(context.isActive());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.blogapplication.controller;
+
+import com.example.blogapplication.db2.entities.BlogEntity;
+import com.example.blogapplication.db2.repository.BlogRepository;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static com.example.blogapplication.support.QueryCountAssertions.withinQueryBudget;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "reader@example.com")
+class CommentControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    @Qualifier("blogDataSource")
+    private DataSource blogDataSource;
+
+    private int blogId;
+
+    @BeforeEach
+    void setUp() {
+        blogRepository.deleteAll();
+        BlogEntity blog = new BlogEntity();
+        blog.setTitle("Threaded post");
+        blog.setContent("A post that collects comments");
+        blog.setAuthor("ada");
+        blogId = blogRepository.save(blog).getId();
+    }
+
+    @Test
+    void subtreeIsOneRangeScanInThreadOrder() throws Exception {
+        int first = comment(null, "First top-level comment");
+        int reply = comment(first, "Reply to the first comment");
+        int nested = comment(reply, "Reply to the reply");
+        int second = comment(null, "Second top-level comment");
+        int secondReply = comment(first, "Another reply to the first comment");
+
+        mockMvc.perform(get("/blog/{blogId}/comments", blogId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments.length()").value(2))
+                .andExpect(jsonPath("$.comments[0].id").value(first))
+                .andExpect(jsonPath("$.comments[0].replyCount").value(2))
+                .andExpect(jsonPath("$.comments[1].id").value(second));
+
+        String page = mockMvc.perform(get("/blog/{blogId}/comments/{id}/thread", blogId, first).param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(withinQueryBudget(2))
+                .andExpect(jsonPath("$.comments[*].id").value(contains(first, reply, nested)))
+                .andExpect(jsonPath("$.comments[2].depth").value(2))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/blog/{blogId}/comments/{id}/thread", blogId, first)
+                        .param("after", JsonPath.<String>read(page, "$.next")))
+                .andExpect(jsonPath("$.comments[*].id").value(contains(secondReply)));
+
+        mockMvc.perform(get("/blog/{blogId}/comments/thread", blogId))
+                .andExpect(jsonPath("$.comments[*].id").value(contains(first, reply, nested, secondReply, second)));
+
+        mockMvc.perform(get("/blog/{blogId}/comments/{id}/thread", blogId, 999999))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Comment not found"));
+    }
+
+    @Test
+    void idsPastEightDigitsKeepThreadOrder() throws Exception {
+        new JdbcTemplate(blogDataSource).execute("ALTER TABLE comments ALTER COLUMN id RESTART WITH 99999999");
+        int first = comment(null, "Comment 99,999,999");
+        int second = comment(null, "Comment 100,000,000");
+        int reply = comment(first, "Reply to the first");
+
+        mockMvc.perform(get("/blog/{blogId}/comments/thread", blogId))
+                .andExpect(jsonPath("$.comments[*].id").value(contains(first, reply, second)));
+    }
+
+    @Test
+    void replyMustBelongToTheSameBlog() throws Exception {
+        mockMvc.perform(post("/blog/{blogId}/comments", blogId).param("parentId", "999999")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"content\":\"orphan\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    private int comment(Integer parentId, String content) throws Exception {
+        var request = post("/blog/{blogId}/comments", blogId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"content\":\"" + content + "\"}");
+        if (parentId != null)
+            request.param("parentId", parentId.toString());
+        String body = mockMvc.perform(request)
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.body.author").value("reader@example.com"))
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(body, "$.body.id");
+    }
+}
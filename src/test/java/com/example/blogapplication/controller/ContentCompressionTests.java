@@ -0,0 +1,93 @@
+package com.example.blogapplication.controller;
+
+import com.example.blogapplication.db2.entities.BlogEntity;
+import com.example.blogapplication.services.blog.BlogService;
+import com.example.blogapplication.services.blog.ContentRecompressor;
+import com.example.blogapplication.util.ContentCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"blog.content-compression.enabled=true", "blog.content-compression.min-size=256B",
+        "blog.content-compression.batch-pause=0ms"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ContentCompressionTests {
+
+    private static final String LONG = "Compression works best on prose that repeats itself, like this sentence does. ".repeat(40);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BlogService blogService;
+
+    @Autowired
+    private ContentRecompressor contentRecompressor;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ContentCompressionTests(@Qualifier("blogDataSource") DataSource blogDataSource) {
+        this.jdbcTemplate = new JdbcTemplate(blogDataSource);
+    }
+
+    @Test
+    void longContentIsStoredCompressedAndReadBackOnBothPaths() throws Exception {
+        BlogEntity blog = new BlogEntity();
+        blog.setTitle("A long post");
+        blog.setContent(LONG);
+        blog.setAuthor("ada");
+        blogService.addBlog(blog);
+
+        String stored = storedContent(blog.getId());
+        assertTrue(stored.startsWith(ContentCodec.MARKER + "L"), stored);
+        assertTrue(stored.length() * 4 < LONG.length(), "stored " + stored.length() + " chars");
+
+        assertEquals(LONG, blogService.findById(blog.getId()).orElseThrow().getContent());
+        MvcResult pending = mockMvc.perform(get("/api/posts/{id}", blog.getId())).andReturn();
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").value(LONG));
+    }
+
+    @Test
+    void recompressionRewritesOnlyRowsNotInTheCurrentForm() {
+        int plain = insert(LONG);
+        int small = insert("Short enough to stay as it is");
+        int marked = insert(ContentCodec.MARKER + " starts with the marker");
+
+        contentRecompressor.recompressAll();
+        assertTrue(storedContent(plain).startsWith(ContentCodec.MARKER + "L"));
+        assertEquals("Short enough to stay as it is", storedContent(small));
+        assertEquals(ContentCodec.MARKER + "R" + ContentCodec.MARKER + " starts with the marker", storedContent(marked));
+        assertEquals(LONG, blogService.findById(plain).orElseThrow().getContent());
+        assertEquals(ContentCodec.MARKER + " starts with the marker", blogService.findById(marked).orElseThrow().getContent());
+
+        assertEquals(0, contentRecompressor.recompressAll().rewritten());
+    }
+
+    private int insert(String content) {
+        jdbcTemplate.update("INSERT INTO blogs (title, content, author, created_at) VALUES ('Written before', ?, 'ada', CURRENT_TIMESTAMP)", content);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM blogs", Integer.class);
+    }
+
+    private String storedContent(int id) {
+        return jdbcTemplate.queryForObject("SELECT content FROM blogs WHERE id = ?", String.class, id);
+    }
+}
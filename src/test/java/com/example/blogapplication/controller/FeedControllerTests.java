@@ -0,0 +1,127 @@
+package com.example.blogapplication.controller;
+
+import com.example.blogapplication.db2.entities.BlogEntity;
+import com.example.blogapplication.db2.repository.BlogRepository;
+import com.example.blogapplication.services.blog.BlogService;
+import com.example.blogapplication.services.blog.FeedService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Two blogs per sitemap shard so a handful of posts spans several shards
+@SpringBootTest(properties = "blog.feeds.sitemap-shard-size=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FeedControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BlogService blogService;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private FeedService feedService;
+
+    @Test
+    void feedsAreServedAnonymouslyWithETags() throws Exception {
+        int id = add("Feeds & <escaping>");
+
+        mockMvc.perform(get("/rss.xml"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/rss+xml;charset=UTF-8"))
+                .andExpect(content().string(containsString("<title>Feeds &amp; &lt;escaping&gt;</title>")))
+                .andExpect(content().string(containsString("/posts/" + id + "</link>")));
+        mockMvc.perform(get("/atom.xml"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("<name>ada</name>")));
+
+        String etag = etag("/rss.xml");
+        mockMvc.perform(get("/rss.xml").header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+
+        blogService.deleteBlog(id);
+        mockMvc.perform(get("/rss.xml").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(content().string(not(containsString("/posts/" + id + "<"))));
+    }
+
+    @Test
+    void aChangeReRendersOnlyItsSitemapShard() throws Exception {
+        int first = add("First");
+        int last = first;
+        // Make sure the two posts land in different shards
+        while (last / 2 == first / 2)
+            last = add("Another");
+        String firstShard = "/sitemap-" + first / 2 + ".xml";
+        String lastShard = "/sitemap-" + last / 2 + ".xml";
+
+        mockMvc.perform(get("/sitemap.xml"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("/sitemap-" + first / 2 + ".xml</loc>")))
+                .andExpect(content().string(containsString("/sitemap-" + last / 2 + ".xml</loc>")));
+        mockMvc.perform(get(firstShard))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("/posts/" + first + "</loc>")));
+        String firstTag = etag(firstShard);
+        String lastTag = etag(lastShard);
+        String indexTag = etag("/sitemap.xml");
+
+        Thread.sleep(1100); // lastmod has second precision
+        BlogEntity update = blog("Last, edited");
+        blogService.updateBlog(last, update);
+
+        assertEquals(firstTag, etag(firstShard));
+        assertNotEquals(lastTag, etag(lastShard));
+        assertNotEquals(indexTag, etag("/sitemap.xml"));
+        mockMvc.perform(get("/sitemap-" + (last / 2 + 1000) + ".xml")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void rowsWithoutRenderedHtmlAreSanitisedInTheFeeds() throws Exception {
+        int id = add("Legacy");
+        // As written before content_html existed
+        BlogEntity legacy = blogRepository.findById(id).orElseThrow();
+        legacy.setContent("Old *markdown* <script>alert(1)</script>");
+        legacy.setContentHtml(null);
+        blogRepository.save(legacy);
+        feedService.changed(id, legacy.getCreatedAt());
+
+        for (String feed : new String[]{"/rss.xml", "/atom.xml"})
+            mockMvc.perform(get(feed))
+                    .andExpect(content().string(containsString("&lt;em&gt;markdown&lt;/em&gt;")))
+                    .andExpect(content().string(not(containsString("&lt;script&gt;"))));
+    }
+
+    private String etag(String path) throws Exception {
+        return mockMvc.perform(get(path)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private int add(String title) {
+        BlogEntity blog = blog(title);
+        blogService.addBlog(blog);
+        return blog.getId();
+    }
+
+    private static BlogEntity blog(String title) {
+        BlogEntity blog = new BlogEntity();
+        blog.setTitle(title);
+        blog.setContent("Some *markdown* for " + title);
+        blog.setAuthor("ada");
+        return blog;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.blogapplication.controller;
+
+import com.example.blogapplication.services.IdempotencyStore;
+import com.example.blogapplication.services.blog.RevisionService;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotencyTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoSpyBean
+    private RevisionService revisionService;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    IdempotencyTests(@Qualifier("blogDataSource") DataSource blogDataSource) {
+        this.jdbcTemplate = new JdbcTemplate(blogDataSource);
+    }
+
+    @Test
+    void retriesAreAnsweredWithTheOriginalResponse() throws Exception {
+        mockMvc.perform(addBlog("key-1", "Posted once only")).andExpect(status().isOk()).andExpect(jsonPath("$.message").value("Blog posted"));
+        mockMvc.perform(addBlog("key-1", "Posted once only"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.message").value("Blog posted"));
+        assertEquals(1, count("Posted once only"));
+
+        // Same key, different body
+        mockMvc.perform(addBlog("key-1", "Something else")).andExpect(status().isUnprocessableEntity());
+        assertEquals(0, count("Something else"));
+
+        // Keys belong to the caller
+        mockMvc.perform(addBlog("key-1", "Posted once only").with(user("someone-else"))).andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        assertEquals(2, count("Posted once only"));
+
+        // Form posts too: the retried delete is not "Something went wrong"
+        int id = jdbcTemplate.queryForObject("SELECT MAX(id) FROM blogs WHERE title = 'Posted once only'", Integer.class);
+        for (int attempt = 0; attempt < 2; attempt++)
+            mockMvc.perform(post("/blog/deleteBlog").with(user("ada")).header("Idempotency-Key", "delete-1")
+                            .contentType(MediaType.APPLICATION_FORM_URLENCODED).param("id", String.valueOf(id)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.message").value("Deleted sucessfully"));
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheOriginal() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<MvcResult>> results = new ArrayList<>();
+            Callable<MvcResult> attempt = () -> mockMvc.perform(addBlog("key-2", "Raced four times")).andReturn();
+            for (int i = 0; i < 4; i++)
+                results.add(executor.submit(attempt));
+            for (Future<MvcResult> result : results) {
+                assertEquals(200, result.get().getResponse().getStatus());
+                assertEquals("{\"message\":\"Blog posted\"}", result.get().getResponse().getContentAsString());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, count("Raced four times"));
+    }
+
+    @Test
+    void aWriteFailingAfterTheInsertLeavesNothingForTheRetryToDuplicate() throws Exception {
+        doThrow(new IllegalStateException("revision insert failed")).doCallRealMethod().when(revisionService).created(any());
+
+        assertThrows(ServletException.class, () -> mockMvc.perform(addBlog("key-3", "Failed then retried")));
+        assertEquals(0, count("Failed then retried"));
+
+        mockMvc.perform(addBlog("key-3", "Failed then retried")).andExpect(status().isOk());
+        assertEquals(1, count("Failed then retried"));
+    }
+
+    @Test
+    void aClaimLeftByADeadNodeIsTakenOverOnceItsLeaseLapses() {
+        String live = "a".repeat(64), lapsed = "b".repeat(64), fingerprint = "f".repeat(64);
+        LocalDateTime now = LocalDateTime.now();
+        // Claims another node took and has not answered: just now, and an hour ago
+        jdbcTemplate.update("INSERT INTO idempotency_keys (idem_key, fingerprint, claimed_at, expires_at) VALUES (?, ?, ?, ?)",
+                live, fingerprint, Timestamp.valueOf(now), Timestamp.valueOf(now.plusHours(23)));
+        jdbcTemplate.update("INSERT INTO idempotency_keys (idem_key, fingerprint, claimed_at, expires_at) VALUES (?, ?, ?, ?)",
+                lapsed, fingerprint, Timestamp.valueOf(now.minusHours(1)), Timestamp.valueOf(now.plusHours(23)));
+
+        assertEquals(IdempotencyStore.Outcome.IN_PROGRESS, idempotencyStore.claim(live, fingerprint).outcome());
+        IdempotencyStore.Claim takeover = idempotencyStore.claim(lapsed, fingerprint);
+        assertEquals(IdempotencyStore.Outcome.EXECUTE, takeover.outcome());
+        idempotencyStore.complete(lapsed, takeover, new IdempotencyStore.Response(200, "text/plain", "done".getBytes()));
+        assertEquals(IdempotencyStore.Outcome.REPLAY, idempotencyStore.claim(lapsed, fingerprint).outcome());
+    }
+
+    private static MockHttpServletRequestBuilder addBlog(String key, String title) {
+        return post("/blog/addBlog").with(user("ada")).header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"" + title + "\",\"content\":\"Enough content to be valid.\",\"author\":\"ada\"}");
+    }
+
+    private int count(String title) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM blogs WHERE title = ?", Integer.class, title);
+    }
+}
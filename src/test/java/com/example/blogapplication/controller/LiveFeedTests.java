@@ -0,0 +1,107 @@
+package com.example.blogapplication.controller;
+
+import com.example.blogapplication.db2.entities.BlogEntity;
+import com.example.blogapplication.services.blog.BlogService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Streams need a real connector: non-blocking servlet output is not available under MockMvc
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "blog.live.heartbeat=300ms")
+@ActiveProfiles("test")
+class LiveFeedTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BlogService blogService;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @AfterEach
+    void close() {
+        client.shutdownNow();
+    }
+
+    @Test
+    void postsArePushedAndReplayedFromLastEventId() throws Exception {
+        BlockingQueue<String> live = connect(null);
+        assertEquals("retry: 3000", next(live));
+
+        int id = add("Pushed live");
+        String eventId = skipTo(live, "id: ").substring(4);
+        assertEquals("event: post-created", next(live));
+        String data = next(live);
+        assertTrue(data.startsWith("data: {\"id\":" + id + ",\"title\":\"Pushed live\""), data);
+
+        int second = add("Missed while away");
+        BlockingQueue<String> resumed = connect(eventId);
+        assertEquals("retry: 3000", next(resumed));
+        next(resumed);
+        skipTo(resumed, "id: ");
+        assertTrue(next(resumed).equals("event: post-created"));
+        assertTrue(next(resumed).contains("\"id\":" + second));
+
+        // Heartbeat comments keep idle streams open
+        assertEquals(":", skipTo(resumed, ":"));
+
+        // An id the ring no longer holds (e.g. from before a restart) asks the client to refetch
+        BlockingQueue<String> stale = connect("1");
+        next(stale);
+        next(stale);
+        assertEquals("event: resync", next(stale));
+    }
+
+    private BlockingQueue<String> connect(String lastEventId) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/posts/live"))
+                .header("Accept", "text/event-stream");
+        if (lastEventId != null)
+            request.header("Last-Event-ID", lastEventId);
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofLines())
+                .thenAccept(response -> {
+                    assertEquals("text/event-stream;charset=UTF-8", response.headers().firstValue("Content-Type").orElseThrow());
+                    response.body().forEach(lines::add);
+                });
+        return lines;
+    }
+
+    private static String next(BlockingQueue<String> lines) throws InterruptedException {
+        String line = lines.poll(10, TimeUnit.SECONDS);
+        assertNotNull(line, "no event within 10s");
+        return line;
+    }
+
+    private static String skipTo(BlockingQueue<String> lines, String prefix) throws InterruptedException {
+        String line;
+        do {
+            line = next(lines);
+        } while (!line.startsWith(prefix));
+        return line;
+    }
+
+    private int add(String title) {
+        BlogEntity blog = new BlogEntity();
+        blog.setTitle(title);
+        blog.setContent("Content for " + title);
+        blog.setAuthor("ada");
+        blogService.addBlog(blog);
+        return blog.getId();
+    }
+}
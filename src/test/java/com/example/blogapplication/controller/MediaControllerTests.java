@@ -0,0 +1,123 @@
+package com.example.blogapplication.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class MediaControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void uploadIsServedWithRangesCachingAndAThumbnail() throws Exception {
+        byte[] png = png(800, 600);
+        String body = mockMvc.perform(multipart("/blog/images").file(new MockMultipartFile("file", "photo.bin", "application/octet-stream", png)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String url = JsonPath.read(body, "$.url");
+        String thumbnail = JsonPath.read(body, "$.thumbnail");
+
+        byte[] served = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertArrayEquals(png, served);
+
+        String etag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+
+        byte[] part = mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=10-19"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-19/" + png.length))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertArrayEquals(Arrays.copyOfRange(png, 10, 20), part);
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=" + png.length + "-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+
+        // Thumbnail is produced in the background
+        BufferedImage thumb = null;
+        for (int i = 0; i < 50 && thumb == null; i++) {
+            var response = mockMvc.perform(get(thumbnail)).andReturn().getResponse();
+            if (response.getHeader(HttpHeaders.CACHE_CONTROL).contains("immutable"))
+                thumb = ImageIO.read(new ByteArrayInputStream(response.getContentAsByteArray()));
+            else
+                Thread.sleep(100);
+        }
+        assertEquals(320, thumb.getWidth());
+        assertEquals(240, thumb.getHeight());
+    }
+
+    @Test
+    void nonImagesAreRejected() throws Exception {
+        mockMvc.perform(multipart("/blog/images").file(new MockMultipartFile("file", "x.png", "image/png", "not an image".getBytes())))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/media/../../etc/passwd")).andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    void oversizedImagesAreNotDecoded() throws Exception {
+        // A tiny file whose header claims 50000 x 50000 pixels
+        byte[] png = png(2, 2);
+        ByteBuffer header = ByteBuffer.wrap(png);
+        header.putInt(16, 50_000).putInt(20, 50_000);
+        CRC32 crc = new CRC32();
+        crc.update(png, 12, 17);
+        header.putInt(29, (int) crc.getValue());
+
+        double before = meterRegistry.counter("blog.media.thumbnails", "outcome", "too-large").count();
+        String body = mockMvc.perform(multipart("/blog/images").file(new MockMultipartFile("file", "bomb.png", "image/png", png)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        for (int i = 0; i < 50 && meterRegistry.counter("blog.media.thumbnails", "outcome", "too-large").count() == before; i++)
+            Thread.sleep(100);
+        assertEquals(before + 1, meterRegistry.counter("blog.media.thumbnails", "outcome", "too-large").count());
+        mockMvc.perform(get((String) JsonPath.read(body, "$.thumbnail")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, not(containsString("immutable"))));
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++)
+            image.setRGB(x, x * height / width, 0xff0000 + x);
+        // Vary the bytes per run so repeated runs don't only hit the dedup path
+        image.setRGB(0, 0, (int) System.nanoTime() & 0xffffff);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
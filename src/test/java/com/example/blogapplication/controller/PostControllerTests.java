@@ -0,0 +1,245 @@
+package com.example.blogapplication.controller;
+
+import com.example.blogapplication.db2.entities.BlogEntity;
+import com.example.blogapplication.db2.reactive.BlogPost;
+import com.example.blogapplication.db2.repository.BlogRepository;
+import com.example.blogapplication.services.blog.BlogService;
+import com.example.blogapplication.services.blog.TagIndex;
+import com.example.blogapplication.services.blog.ViewCounter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PostControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoSpyBean
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private BlogService blogService;
+
+    @Autowired
+    private TagIndex tagIndex;
+
+    @Autowired
+    private ViewCounter viewCounter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("blogDataSource")
+    private DataSource blogDataSource;
+
+    private int newest;
+
+    @BeforeEach
+    void setUp() {
+        blogRepository.deleteAll();
+        tagIndex.rebuild();
+        for (int i = 1; i <= 3; i++) {
+            BlogEntity blog = new BlogEntity();
+            blog.setTitle("Post number " + i);
+            blog.setContent("Content of post number " + i);
+            blog.setAuthor(i == 2 ? "grace" : "ada");
+            blog.getTags().add(i == 3 ? "r2dbc" : "java");
+            if (i != 2)
+                blog.getTags().add("spring");
+            blogService.addBlog(blog);
+            newest = blog.getId();
+        }
+    }
+
+    @Test
+    void feedIsNewestFirstAndPagesByKey() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/posts").param("limit", "2").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(first))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(newest))
+                .andExpect(jsonPath("$[1].id").value(newest - 1));
+
+        MvcResult next = mockMvc.perform(get("/api/posts").param("before", String.valueOf(newest - 1)).accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(next))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(newest - 2));
+    }
+
+    @Test
+    void feedStreamsNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/posts").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+    }
+
+    @Test
+    void singlePostAndSearch() throws Exception {
+        MvcResult found = mockMvc.perform(get("/api/posts/{id}", newest)).andReturn();
+        mockMvc.perform(asyncDispatch(found))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Post number 3"))
+                .andExpect(jsonPath("$.archived").doesNotExist());
+
+        MvcResult missing = mockMvc.perform(get("/api/posts/{id}", newest + 100)).andReturn();
+        mockMvc.perform(asyncDispatch(missing)).andExpect(status().isNotFound());
+
+        MvcResult search = mockMvc.perform(get("/api/posts/search").param("q", "grace").accept(MediaType.APPLICATION_JSON)).andReturn();
+        mockMvc.perform(asyncDispatch(search))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].author").value("grace"));
+    }
+
+    @Test
+    void feedFiltersByTagsThroughTheBitmapIndex() throws Exception {
+        MvcResult both = mockMvc.perform(get("/api/posts").param("tags", "java,spring").accept(MediaType.APPLICATION_JSON)).andReturn();
+        mockMvc.perform(asyncDispatch(both))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(newest - 2));
+
+        MvcResult either = mockMvc.perform(get("/api/posts").param("anyTags", "java,r2dbc").param("limit", "2").accept(MediaType.APPLICATION_JSON)).andReturn();
+        mockMvc.perform(asyncDispatch(either))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(newest))
+                .andExpect(jsonPath("$[1].id").value(newest - 1));
+
+        MvcResult negative = mockMvc.perform(get("/api/posts").param("tags", "java").param("before", "-1").accept(MediaType.APPLICATION_JSON)).andReturn();
+        mockMvc.perform(asyncDispatch(negative))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        blogService.deleteBlog(newest);
+        MvcResult afterDelete = mockMvc.perform(get("/api/posts").param("tags", "spring").accept(MediaType.APPLICATION_JSON)).andReturn();
+        mockMvc.perform(asyncDispatch(afterDelete))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(newest - 2));
+    }
+
+    @Test
+    void writesCommittedWhileTheTagIndexReloadsAreKept() {
+        BlogEntity racing = new BlogEntity();
+        racing.setTitle("Written during a reload");
+        racing.setContent("Tagged while the index was reading blog_tags.");
+        racing.setAuthor("ada");
+        racing.getTags().add("reload");
+        doAnswer(invocation -> {
+            // The spied repository is an interface proxy, so read what the real query would return directly
+            List<Object[]> rows = new JdbcTemplate(blogDataSource).query("SELECT blog_id, tag FROM blog_tags",
+                    (rs, i) -> new Object[]{rs.getInt(1), rs.getString(2)});
+            blogService.addBlog(racing);
+            blogService.deleteBlog(newest);
+            return rows;
+        }).when(blogRepository).findAllTags();
+        try {
+            tagIndex.rebuild();
+        } finally {
+            reset(blogRepository);
+        }
+
+        assertEquals(List.of(racing.getId()), tagIndex.newest(List.of("reload"), List.of(), Integer.MAX_VALUE, 10));
+        assertEquals(List.of(), tagIndex.newest(List.of("r2dbc"), List.of(), Integer.MAX_VALUE, 10));
+    }
+
+    @Test
+    void nullTagsAreTreatedAsNone() throws Exception {
+        String json = "{\"title\":\"Untagged post\",\"content\":\"Content without any tags\",\"author\":\"ada\",\"tags\":null}";
+        BlogEntity blog = objectMapper.readValue(json, BlogEntity.class);
+        assertEquals(0, blog.getTags().size());
+        blogService.addBlog(blog);
+
+        assertTrue(blogService.updateBlog(newest, objectMapper.readValue(json, BlogEntity.class)));
+        assertEquals(List.of(), tagIndex.newest(List.of("r2dbc"), List.of(), Integer.MAX_VALUE, 10));
+    }
+
+    @Test
+    void handWrittenPostSerializerMatchesTheDefaultOne() throws Exception {
+        ObjectMapper plain = JsonMapper.builder().addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        for (BlogPost post : List.of(
+                new BlogPost(7, "A \"quoted\" title", "Body", "ada", LocalDateTime.of(2024, 5, 1, 12, 0), null, null, "<p>Body</p>", false),
+                new BlogPost(8, "Edited", null, "grace", LocalDateTime.of(2024, 5, 1, 12, 0, 1, 500), LocalDateTime.now(), "/media/x.png", null, true)))
+            assertEquals(plain.writeValueAsString(post), objectMapper.writeValueAsString(post));
+    }
+
+    @Test
+    void viewsAreCountedInMemoryAndFlushedInOneBatch() throws Exception {
+        for (int i = 0; i < 3; i++)
+            mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/posts/{id}", newest)).andReturn()));
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/posts/{id}", newest - 1)).andReturn()));
+
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/posts/{id}/views", newest)).andReturn()))
+                .andExpect(jsonPath("$.views").value(3));
+
+        viewCounter.flush();
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/posts/{id}", newest)).andReturn()));
+        viewCounter.flush();
+        assertEquals(0, viewCounter.unflushed(newest));
+
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/posts/{id}/views", newest)).andReturn()))
+                .andExpect(jsonPath("$.views").value(4));
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/posts/{id}/views", newest - 1)).andReturn()))
+                .andExpect(jsonPath("$.views").value(1));
+    }
+
+    @Test
+    void contentIsServedAsSanitisedMarkdown() throws Exception {
+        BlogEntity blog = new BlogEntity();
+        blog.setTitle("Markdown post");
+        blog.setContent("Some **bold** text <script>alert(1)</script> and [a link](javascript:alert(1))"
+                + " [another](data:text/html;base64,PHNjcmlwdD5hbGVydCgxKTwvc2NyaXB0Pg==) ![img](data:image/svg+xml;base64,PHN2Zz4=)");
+        blog.setAuthor("ada");
+        blogService.addBlog(blog);
+
+        MvcResult rendered = mockMvc.perform(get("/api/posts/{id}", blog.getId())).andReturn();
+        mockMvc.perform(asyncDispatch(rendered))
+                .andExpect(jsonPath("$.contentHtml").value(containsString("<strong>bold</strong>")))
+                .andExpect(jsonPath("$.contentHtml").value(containsString("&lt;script&gt;")))
+                .andExpect(jsonPath("$.contentHtml").value(not(containsString("javascript:"))))
+                .andExpect(jsonPath("$.contentHtml").value(not(containsString("data:"))));
+
+        // Rows from before content_html existed are rendered on first read and written back
+        BlogEntity legacy = blogRepository.findById(newest).orElseThrow();
+        legacy.setContentHtml(null);
+        blogRepository.save(legacy);
+        MvcResult backfilled = mockMvc.perform(get("/api/posts/{id}", newest)).andReturn();
+        mockMvc.perform(asyncDispatch(backfilled))
+                .andExpect(jsonPath("$.contentHtml").value("<p>Content of post number 3</p>\n"));
+        assertEquals("<p>Content of post number 3</p>\n", blogRepository.findById(newest).orElseThrow().getContentHtml());
+    }
+}
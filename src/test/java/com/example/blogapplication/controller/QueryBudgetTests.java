@@ -0,0 +1,63 @@
+package com.example.blogapplication.controller;
+
+import com.example.blogapplication.db1.repositories.UserRepository;
+import com.example.blogapplication.services.user.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.example.blogapplication.support.QueryCountAssertions.assertQueryCount;
+import static com.example.blogapplication.support.QueryCountAssertions.withinQueryBudget;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryBudgetTests {
+
+    private static final String EMAIL = "budget@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        userRepository.deleteAll();
+        mockMvc.perform(post("/register")
+                        .param("name", "Budget")
+                        .param("email", EMAIL)
+                        .param("password", "Secret@123")
+                        .param("confirmpassword", "Secret@123"))
+                .andExpect(status().isOk())
+                .andExpect(withinQueryBudget(2));
+    }
+
+    @Test
+    void loginStaysWithinBudget() throws Exception {
+        mockMvc.perform(post("/login").param("email", EMAIL).param("password", "Secret@123"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Query-Count-By-Unit", "user_db=2"))
+                .andExpect(withinQueryBudget(2))
+                .andExpect(jsonPath("$.body.email").value(EMAIL))
+                .andExpect(jsonPath("$.body.password").doesNotExist())
+                .andExpect(jsonPath("$.body.resetToken").doesNotExist());
+    }
+
+    @Test
+    void serviceLookupIsASingleQuery() {
+        assertQueryCount(1, () -> userService.findUserByEmail(EMAIL));
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.blogapplication.controller;
+
+import com.example.blogapplication.config.ResilienceConfig;
+import com.example.blogapplication.services.EmailService;
+import com.example.blogapplication.util.CircuitBreakerHealthIndicator;
+import com.zaxxer.hikari.HikariDataSource;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "blog.resilience.smtp.sliding-window=2",
+        "blog.resilience.smtp.minimum-calls=2",
+        "blog.resilience.blog_db.max-concurrent=2",
+        "blog.resilience.blog_db.max-wait=0ms",
+        "blog.change-log.poll-interval=1h"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class ResilienceTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private EmailService emailService;
+
+    @MockitoBean
+    private JavaMailSenderImpl mailSender;
+
+    @Autowired
+    @Qualifier("userDbBreakerHealthIndicator")
+    private CircuitBreakerHealthIndicator userDbHealth;
+
+    @Autowired
+    @Qualifier("smtpBreakerHealthIndicator")
+    private CircuitBreakerHealthIndicator smtpHealth;
+
+    @Autowired
+    @Qualifier("blogDataSource")
+    private DataSource blogDataSource;
+
+    @Autowired
+    @Qualifier("userDataSource")
+    private DataSource userDataSource;
+
+    @AfterEach
+    void closeBreakers() {
+        circuitBreakerRegistry.getAllCircuitBreakers().forEach(CircuitBreaker::reset);
+    }
+
+    @Test
+    void openDatabaseBreakerFailsFastAndTakesTheInstanceOutOfService() throws Exception {
+        circuitBreakerRegistry.circuitBreaker(ResilienceConfig.USER_DB).transitionToForcedOpenState();
+
+        mockMvc.perform(post("/login").param("email", "ada@example.com").param("password", "Secret@123"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+        assertEquals(Status.OUT_OF_SERVICE, userDbHealth.health().getStatus());
+    }
+
+    @Test
+    void writesFailFastWhileTheBlogDatabaseBreakerIsOpen() throws Exception {
+        circuitBreakerRegistry.circuitBreaker(ResilienceConfig.BLOG_DB).transitionToForcedOpenState();
+
+        mockMvc.perform(post("/blog/addBlog").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Written during an outage\",\"content\":\"Enough content to be valid.\",\"author\":\"ada\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.message").value(containsString(ResilienceConfig.BLOG_DB)));
+    }
+
+    @Test
+    void reactiveReadsShareTheBlogDatabaseBreakerAndBulkhead() throws Exception {
+        MvcResult served = mockMvc.perform(get("/api/posts")).andReturn();
+        mockMvc.perform(asyncDispatch(served)).andExpect(status().isOk());
+
+        try (Connection first = blogDataSource.getConnection(); Connection second = blogDataSource.getConnection()) {
+            MvcResult refused = mockMvc.perform(get("/api/posts")).andReturn();
+            mockMvc.perform(asyncDispatch(refused)).andExpect(status().isServiceUnavailable());
+        }
+
+        circuitBreakerRegistry.circuitBreaker(ResilienceConfig.BLOG_DB).transitionToForcedOpenState();
+        MvcResult failedFast = mockMvc.perform(get("/api/posts")).andReturn();
+        mockMvc.perform(asyncDispatch(failedFast))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.message").value(containsString(ResilienceConfig.BLOG_DB)));
+    }
+
+    @Test
+    void fullBulkheadRefusesInsteadOfQueueing() throws Exception {
+        try (Connection first = blogDataSource.getConnection(); Connection second = blogDataSource.getConnection()) {
+            mockMvc.perform(get("/blog/{id}/revisions", 1)).andExpect(status().isServiceUnavailable());
+        }
+        mockMvc.perform(get("/blog/{id}/revisions", 1)).andExpect(status().isOk());
+    }
+
+    @Test
+    void failingSmtpOpensItsBreakerWithoutAffectingHealth() throws Exception {
+        when(mailSender.createMimeMessage()).thenReturn(new MimeMessage((Session) null));
+        doThrow(new MailSendException("smtp down")).when(mailSender).send(any(MimeMessage.class));
+
+        assertTrue(emailService.isAvailable());
+        assertFalse(emailService.sendEmail("ada@example.com", "token").get());
+        assertFalse(emailService.sendEmail("ada@example.com", "token").get());
+
+        assertFalse(emailService.isAvailable());
+        assertEquals(Status.UP, smtpHealth.health().getStatus());
+        assertEquals(CircuitBreaker.State.OPEN, smtpHealth.health().getDetails().get("state"));
+        mockMvc.perform(post("/user/forgot-password").param("email", "ada@example.com"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void poolTimeoutsAreAppliedUnderTheBoundProperties() throws Exception {
+        HikariDataSource pool = userDataSource.unwrap(HikariDataSource.class);
+        assertEquals(5000, pool.getConnectionTimeout());
+        assertEquals("60000", pool.getDataSourceProperties().getProperty("socketTimeout"));
+        assertEquals("true", pool.getDataSourceProperties().getProperty("useLocalSessionState"));
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.blogapplication.controller;
+
+import com.example.blogapplication.db2.entities.BlogEntity;
+import com.example.blogapplication.services.blog.BlogService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.in;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class RevisionTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BlogService blogService;
+
+    @Test
+    void editsAreKeptAsSnapshotsAndDeltasAndCanBeRebuiltAndDiffed() throws Exception {
+        List<String> versions = new ArrayList<>();
+        versions.add(version(0));
+        BlogEntity blog = blog(versions.getFirst());
+        blogService.addBlog(blog);
+        int id = blog.getId();
+        for (int edit = 1; edit <= 11; edit++) {
+            versions.add(version(edit));
+            blogService.updateBlog(id, blog(versions.getLast()));
+        }
+
+        // Revision 1 as created, then a full copy every 10 revisions; the small edits in between are deltas
+        mockMvc.perform(get("/blog/{id}/revisions", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(12))
+                .andExpect(jsonPath("$[0].revision").value(12))
+                .andExpect(jsonPath("$[0].snapshot").value(false))
+                .andExpect(jsonPath("$[1].revision").value(11))
+                .andExpect(jsonPath("$[1].snapshot").value(true))
+                .andExpect(jsonPath("$[2].snapshot").value(false))
+                .andExpect(jsonPath("$[11].snapshot").value(true));
+
+        for (int revision : new int[]{1, 5, 10, 11, 12})
+            mockMvc.perform(get("/blog/{id}/revisions/{revision}", id, revision))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content").value(versions.get(revision - 1)));
+        mockMvc.perform(get("/blog/{id}/revisions/{revision}", id, 13)).andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/blog/{id}/revisions/diff", id).param("from", "2").param("to", "3"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("--- revision 2\n+++ revision 3\n")))
+                .andExpect(content().string(containsString("\n-line 1 edited 1\n-line 2\n+line 1\n+line 2 edited 2\n")));
+    }
+
+    @Test
+    void concurrentEditsOfOnePostGetConsecutiveRevisions() throws Exception {
+        BlogEntity blog = blog(version(0));
+        blogService.addBlog(blog);
+        int id = blog.getId();
+
+        List<String> versions = new ArrayList<>(List.of(version(0)));
+        List<Callable<Boolean>> edits = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int edit = 1; edit <= 6; edit++) {
+            String content = version(edit);
+            versions.add(content);
+            edits.add(() -> {
+                start.await();
+                return blogService.updateBlog(id, blog(content));
+            });
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(edits.size());
+        try {
+            List<Future<Boolean>> results = edits.stream().map(pool::submit).toList();
+            start.countDown();
+            for (Future<Boolean> result : results)
+                assertTrue(result.get());
+        } finally {
+            pool.shutdown();
+        }
+
+        // Every edit got its own revision, and each delta rebuilds to a version that was actually written
+        mockMvc.perform(get("/blog/{id}/revisions", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(7))
+                .andExpect(jsonPath("$[0].revision").value(7));
+        for (int revision = 1; revision <= 7; revision++)
+            mockMvc.perform(get("/blog/{id}/revisions/{revision}", id, revision))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content").value(in(versions)));
+        mockMvc.perform(get("/blog/{id}/revisions/{revision}", id, 7))
+                .andExpect(jsonPath("$.content").value(blogService.findById(id).orElseThrow().getContent()));
+    }
+
+    // Ten lines; edit n changes only line (n % 10)
+    private static String version(int edit) {
+        StringBuilder content = new StringBuilder();
+        for (int line = 0; line < 10; line++) {
+            content.append("line ").append(line);
+            if (edit > 0 && line == edit % 10)
+                content.append(" edited ").append(edit);
+            content.append('\n');
+        }
+        return content.toString();
+    }
+
+    private static BlogEntity blog(String content) {
+        BlogEntity blog = new BlogEntity();
+        blog.setTitle("Revised post");
+        blog.setContent(content);
+        blog.setAuthor("ada");
+        return blog;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.blogapplication.controller;
+
+import com.example.blogapplication.db1.repositories.UserRepository;
+import com.example.blogapplication.services.JWTService;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class TracingTests {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    @TestConfiguration
+    static class ExporterConfig {
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InMemorySpanExporter exporter;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        userRepository.deleteAll();
+        mockMvc.perform(post("/register")
+                        .param("name", "Tracer")
+                        .param("email", "tracer@example.com")
+                        .param("password", "Secret@123")
+                        .param("confirmpassword", "Secret@123"))
+                .andExpect(status().isOk());
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        exporter.reset();
+    }
+
+    @Test
+    void authenticatedRequestContinuesIncomingTraceAcrossFilterAndDatabase() throws Exception {
+        mockMvc.perform(post("/blog/deleteBlog")
+                .param("id", "1")
+                .header("Authorization", "Bearer " + jwtService.generateToken("tracer@example.com"))
+                .header("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-01"));
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertTrue(spans.stream().allMatch(span -> span.getTraceId().equals(TRACE_ID)), () -> "spans outside the incoming trace: " + spans);
+
+        SpanData server = spans.stream().filter(span -> span.getName().startsWith("http post")).findFirst().orElseThrow();
+        assertEquals("00f067aa0ba902b7", server.getParentSpanId());
+
+        SpanData auth = spans.stream().filter(span -> span.getName().equals("jwt-auth")).findFirst().orElseThrow();
+        assertTrue(descendsFrom(auth, server, spans), "jwt-auth is not nested under the server span");
+        assertEquals("authenticated", auth.getAttributes().asMap().entrySet().stream()
+                .filter(e -> e.getKey().getKey().equals("outcome")).findFirst().orElseThrow().getValue());
+
+        assertTrue(spans.stream().anyMatch(span -> span.getName().equals("query")
+                        && "user_db".equals(span.getAttributes().asMap().entrySet().stream()
+                        .filter(e -> e.getKey().getKey().equals("jdbc.datasource.name")).map(e -> e.getValue()).findFirst().orElse(null))),
+                () -> "no user_db query span in " + spans);
+    }
+
+    // Spring Security's own filter-chain spans sit between the server span and ours
+    private static boolean descendsFrom(SpanData span, SpanData ancestor, List<SpanData> spans) {
+        for (SpanData current = span; current != null; ) {
+            if (current.getParentSpanId().equals(ancestor.getSpanId())) {
+                return true;
+            }
+            String parentId = current.getParentSpanId();
+            current = spans.stream().filter(s -> s.getSpanId().equals(parentId)).findFirst().orElse(null);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.blogapplication.controller;
+
+import com.example.blogapplication.db2.entities.BlogEntity;
+import com.example.blogapplication.db2.repository.BlogRepository;
+import com.example.blogapplication.services.blog.TrendingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class TrendingTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Test
+    void engagementMovesPostsUpAndDeletedPostsDropOut() throws Exception {
+        blogRepository.deleteAll();
+        int older = save("An older post");
+        int newer = save("A newer post");
+        trendingService.load();
+
+        // No engagement yet: recency alone puts the newer post first
+        mockMvc.perform(get("/blog/trending"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(newer))
+                .andExpect(jsonPath("$[1].id").value(older));
+
+        trendingService.viewsFlushed(Map.of(older, 50L));
+        trendingService.refresh();
+        mockMvc.perform(get("/blog/trending"))
+                .andExpect(jsonPath("$[0].id").value(older))
+                .andExpect(jsonPath("$[0].title").value("An older post"));
+
+        blogRepository.deleteById(older);
+        trendingService.refresh();
+        mockMvc.perform(get("/blog/trending"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(newer));
+    }
+
+    private int save(String title) {
+        BlogEntity blog = new BlogEntity();
+        blog.setTitle(title);
+        blog.setContent("Content for " + title);
+        blog.setAuthor("ada");
+        return blogRepository.save(blog).getId();
+    }
+}
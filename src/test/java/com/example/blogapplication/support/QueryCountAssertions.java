@@ -0,0 +1,51 @@
+package com.example.blogapplication.support;
+
+import com.example.blogapplication.util.QueryCountFilter;
+import com.example.blogapplication.util.RequestQueryCounter;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Query budgets for integration tests. Either wrap a block of code:
+ * <pre>
+ *   assertQueryCount(2, () -> blogService.findById(id));
+ * </pre>
+ * or check a MockMvc exchange through the headers written by {@link QueryCountFilter}:
+ * <pre>
+ *   mockMvc.perform(post("/login")...).andExpect(withinQueryBudget(2));
+ * </pre>
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    public static <T> T assertQueryCount(int budget, ThrowingSupplier<T> action) {
+        RequestQueryCounter.Counts counts = RequestQueryCounter.open();
+        T result;
+        try {
+            result = action.get();
+        } catch (Throwable t) {
+            return fail("Action failed while counting queries", t);
+        } finally {
+            RequestQueryCounter.close(counts);
+        }
+        assertTrue(counts.getQueries() <= budget, () -> "Query budget " + budget + " exceeded: " + counts);
+        return result;
+    }
+
+    public static ResultMatcher withinQueryBudget(int budget) {
+        return result -> {
+            String header = result.getResponse().getHeader(QueryCountFilter.QUERY_COUNT_HEADER);
+            assertNotNull(header, "No " + QueryCountFilter.QUERY_COUNT_HEADER + " header; is blog.query-count.headers enabled?");
+            int queries = Integer.parseInt(header);
+            assertTrue(queries <= budget, () -> "Query budget " + budget + " exceeded: " + queries + " queries ("
+                    + result.getResponse().getHeader(QueryCountFilter.QUERY_COUNT_BY_UNIT_HEADER) + ") for "
+                    + result.getRequest().getMethod() + " " + result.getRequest().getRequestURI());
+        };
+    }
+}